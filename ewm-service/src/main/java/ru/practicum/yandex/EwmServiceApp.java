@@ -2,8 +2,10 @@ package ru.practicum.yandex;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class EwmServiceApp {
     public static void main(String[] args) {
         SpringApplication.run(EwmServiceApp.class, args);
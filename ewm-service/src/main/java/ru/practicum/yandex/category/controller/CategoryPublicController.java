@@ -7,6 +7,7 @@ import ru.practicum.yandex.category.dto.CategoryDto;
 import ru.practicum.yandex.category.mapper.CategoryMapper;
 import ru.practicum.yandex.category.model.Category;
 import ru.practicum.yandex.category.service.CategoryService;
+import ru.practicum.yandex.shared.sql.QueryBudget;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -32,6 +33,7 @@ public class CategoryPublicController {
      * @return найденные категории
      */
     @GetMapping
+    @QueryBudget(2)
     public List<CategoryDto> findCategories(@RequestParam(defaultValue = "0") @PositiveOrZero Long from,
                                             @RequestParam(defaultValue = "10") @Positive Integer size) {
         log.info("Поиск категорий от = '{}', размер = '{}'.", from, size);
@@ -46,6 +48,7 @@ public class CategoryPublicController {
      * @return найденная категория
      */
     @GetMapping("/{catId}")
+    @QueryBudget(2)
     public CategoryDto findCategoryById(@PathVariable Long catId) {
         log.info("Поиск категории по id '{}'.", catId);
         Category category = categoryService.findCategoryById(catId);
@@ -1,5 +1,6 @@
 package ru.practicum.yandex.category.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -11,12 +12,14 @@ import ru.practicum.yandex.events.repository.EventRepository;
 import ru.practicum.yandex.shared.OffsetPageRequest;
 import ru.practicum.yandex.shared.exception.NotAuthorizedException;
 import ru.practicum.yandex.shared.exception.NotFoundException;
+import ru.practicum.yandex.shared.metrics.MetricsConfig;
 
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(MetricsConfig.SERVICE_METHOD_TIMER)
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
@@ -75,6 +78,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @return найденные категории
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Category> findCategories(Long from, Integer size) {
         OffsetPageRequest pageRequest = OffsetPageRequest.of(from, size);
         Page<Category> categories = categoryRepository.findAll(pageRequest);
@@ -90,6 +94,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @return найденная категория
      */
     @Override
+    @Transactional(readOnly = true)
     public Category findCategoryById(Long catId) {
         Category category = getCategory(catId);
         log.info("CategoryService категория найдена: " + category);
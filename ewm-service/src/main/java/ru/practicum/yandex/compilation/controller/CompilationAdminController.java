@@ -10,6 +10,7 @@ import ru.practicum.yandex.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.yandex.compilation.mapper.CompilationMapper;
 import ru.practicum.yandex.compilation.model.Compilation;
 import ru.practicum.yandex.compilation.service.CompilationService;
+import ru.practicum.yandex.shared.sql.QueryBudget;
 
 import javax.validation.Valid;
 
@@ -33,6 +34,7 @@ public class CompilationAdminController {
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
+    @QueryBudget(6)
     public CompilationDto addCompilation(@RequestBody @Valid NewCompilationDto newCompilationDto) {
         log.info("Добавление новой подборки: '{}'.", newCompilationDto);
         Compilation compilation = compilationService.addCompilation(newCompilationDto);
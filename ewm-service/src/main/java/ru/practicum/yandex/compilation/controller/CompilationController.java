@@ -7,6 +7,7 @@ import ru.practicum.yandex.compilation.dto.CompilationDto;
 import ru.practicum.yandex.compilation.mapper.CompilationMapper;
 import ru.practicum.yandex.compilation.model.Compilation;
 import ru.practicum.yandex.compilation.service.CompilationService;
+import ru.practicum.yandex.shared.sql.QueryBudget;
 
 import java.util.List;
 
@@ -31,6 +32,7 @@ public class CompilationController {
      * @return списки подборок событий
      */
     @GetMapping
+    @QueryBudget(6)
     public List<CompilationDto> findCompilations(@RequestParam(required = false) Boolean pinned,
                                                  @RequestParam(defaultValue = "0") Long from,
                                                  @RequestParam(defaultValue = "10") Integer size) {
@@ -46,6 +48,7 @@ public class CompilationController {
      * @return найденная подборка событий
      */
     @GetMapping("/{compId}")
+    @QueryBudget(3)
     public CompilationDto findCompilationById(@PathVariable Long compId) {
         log.info("Запрос подборки с id '{}'.", compId);
         Compilation compilation = compilationService.findCompilationById(compId);
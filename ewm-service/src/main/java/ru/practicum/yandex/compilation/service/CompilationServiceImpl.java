@@ -1,5 +1,6 @@
 package ru.practicum.yandex.compilation.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.jpa.domain.Specification;
@@ -11,8 +12,10 @@ import ru.practicum.yandex.compilation.model.Compilation;
 import ru.practicum.yandex.compilation.repository.CompilationRepository;
 import ru.practicum.yandex.events.model.Event;
 import ru.practicum.yandex.events.repository.EventRepository;
+import ru.practicum.yandex.events.service.EventCommentsLoader;
 import ru.practicum.yandex.shared.OffsetPageRequest;
 import ru.practicum.yandex.shared.exception.NotFoundException;
+import ru.practicum.yandex.shared.metrics.MetricsConfig;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -23,10 +26,12 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(MetricsConfig.SERVICE_METHOD_TIMER)
 public class CompilationServiceImpl implements CompilationService {
 
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
+    private final EventCommentsLoader eventCommentsLoader;
 
     /**
      * Добавление новой подборки событий. Подборка может не содержать событий.
@@ -46,7 +51,7 @@ public class CompilationServiceImpl implements CompilationService {
                 .build();
         Compilation savedCompilation = compilationRepository.save(compilation);
         log.info("Сохранена подборка с id '{}'.", savedCompilation.getId());
-        return savedCompilation;
+        return loadLatestComments(savedCompilation);
     }
 
     /**
@@ -63,7 +68,7 @@ public class CompilationServiceImpl implements CompilationService {
         updateCompilationIfNeeded(updateRequest, compilation);
         Compilation savedCompilation = compilationRepository.save(compilation);
         log.info("Обновлена подборка с id '{}'.", compId);
-        return savedCompilation;
+        return loadLatestComments(savedCompilation);
     }
 
     /**
@@ -88,6 +93,7 @@ public class CompilationServiceImpl implements CompilationService {
      * @return списки подборок событий
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Compilation> findCompilations(Boolean pinned, Long from, Integer size) {
         List<Specification<Compilation>> specifications = searchFilterToSpecificationList(pinned);
         OffsetPageRequest pageRequest = OffsetPageRequest.of(from, size);
@@ -95,6 +101,9 @@ public class CompilationServiceImpl implements CompilationService {
                 .findAll(specifications.stream().reduce(Specification::and).orElse(null), pageRequest).getContent();
         log.info("Запрос подборок с параметрами: pinned - '{}', from - '{}', size - '{}'. Размер списка - '{}'.",
                 pinned, from, size, compilations.size());
+        eventCommentsLoader.loadLatestComments(compilations.stream()
+                .flatMap(compilation -> compilation.getEvents().stream())
+                .collect(Collectors.toList()));
         return compilations;
     }
 
@@ -105,9 +114,15 @@ public class CompilationServiceImpl implements CompilationService {
      * @return найденная подборка
      */
     @Override
+    @Transactional(readOnly = true)
     public Compilation findCompilationById(Long compId) {
         Compilation compilation = getCompilationWithEvents(compId);
         log.info("Запрос подборки с id '{}'.", compId);
+        return loadLatestComments(compilation);
+    }
+
+    private Compilation loadLatestComments(Compilation compilation) {
+        eventCommentsLoader.loadLatestComments(compilation.getEvents());
         return compilation;
     }
 
@@ -135,9 +150,12 @@ public class CompilationServiceImpl implements CompilationService {
         }
     }
 
+    /**
+     * Привязка событий к подборке. События загружены в текущей транзакции, поэтому связи записываются при
+     * сбросе контекста без повторного сохранения событий.
+     */
     private void bindEventsToCompilation(Compilation compilation, List<Event> events) {
         events.forEach(event -> event.addToCompilation(compilation));
-        eventRepository.saveAll(events);
     }
 
     private Compilation getCompilation(Long compId) {
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.yandex.events.dto.EventAdminSearchFilter;
 import ru.practicum.yandex.events.service.EventService;
+import ru.practicum.yandex.shared.sql.QueryBudget;
 import ru.practicum.yandex.events.dto.EventFullDto;
 import ru.practicum.yandex.events.dto.EventUpdateRequest;
 import ru.practicum.yandex.events.mapper.EventMapper;
@@ -41,6 +42,7 @@ public class EventAdminController {
      * @return found events
      */
     @GetMapping
+    @QueryBudget(6)
     public List<EventFullDto> getFullEventsInfoByAdmin(EventAdminSearchFilter searchFilter,
                                                        @RequestParam(defaultValue = "0") Long from,
                                                        @RequestParam(defaultValue = "10") Integer size) {
@@ -2,24 +2,39 @@ package ru.practicum.yandex.events.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.yandex.SingleFlight;
 import ru.practicum.yandex.StatClient;
+import ru.practicum.yandex.StatServerUnavailableException;
 import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.TrendingUriDto;
 import ru.practicum.yandex.dto.ViewStatsDto;
+import ru.practicum.yandex.events.dto.CommentPageDto;
 import ru.practicum.yandex.events.dto.EventFullDto;
 import ru.practicum.yandex.events.dto.EventSearchFilter;
 import ru.practicum.yandex.events.dto.EventShortDto;
+import ru.practicum.yandex.events.mapper.CommentMapper;
 import ru.practicum.yandex.events.mapper.EventMapper;
+import ru.practicum.yandex.events.model.CommentCursor;
+import ru.practicum.yandex.events.model.CommentPage;
 import ru.practicum.yandex.events.model.Event;
 import ru.practicum.yandex.events.service.EventService;
+import ru.practicum.yandex.outbox.service.StatOutboxService;
 import ru.practicum.yandex.shared.exception.IncorrectDateRangeException;
+import ru.practicum.yandex.shared.exception.IncorrectSearchFilterException;
+import ru.practicum.yandex.shared.sql.QueryBudget;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.Positive;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -27,18 +42,27 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("/events")
+@Validated
 @RequiredArgsConstructor
 @Slf4j
 public class EventPublicController {
 
     private static final String SERVICE_ID = "ewm-main-service";
 
+    private static final String EVENT_URI_PREFIX = "/events/";
+
     private final EventService eventService;
 
     private final EventMapper eventMapper;
 
+    private final CommentMapper commentMapper;
+
     private final StatClient statClient;
 
+    private final SingleFlight<Long, EventFullDto> fullEventLoads = new SingleFlight<>();
+
+    private final StatOutboxService statOutboxService;
+
     /**
      * Find event according to search filter. Only published events will be displayed. Information about this endpoint
      * is saved to stats server.
@@ -50,17 +74,46 @@ public class EventPublicController {
      * @return list of events
      */
     @GetMapping
+    @QueryBudget(6)
     public List<EventShortDto> findEvents(EventSearchFilter searchFilter,
                                           @RequestParam(defaultValue = "0") Long from,
                                           @RequestParam(defaultValue = "10") Integer size,
                                           HttpServletRequest request) {
         log.info("Requesting events, search filter: '{}'.", searchFilter);
         validateDateRange(searchFilter);
+        validateLocation(searchFilter);
         List<Event> events = eventService.findEvents(searchFilter, from, size);
         sendStatistics(request);
         return eventMapper.toShortDtoList(events);
     }
 
+    /**
+     * Find published events whose unique views grow fastest: number of unique views in the last window is compared
+     * with the previous window of the same size. Ranking is computed and briefly cached by stats server, so only
+     * ranked events are loaded here. Empty list is returned, if stats server is unavailable.
+     *
+     * @param window window size, e.g. 30m, 1h, 1d
+     * @param size   number of events to display
+     * @return events ordered by views acceleration
+     */
+    @GetMapping("/trending")
+    @QueryBudget(4)
+    public List<EventShortDto> findTrendingEvents(@RequestParam(defaultValue = "1h") String window,
+                                                  @RequestParam(defaultValue = "20") @Positive Integer size) {
+        log.info("Requesting trending events, window: '{}', size: '{}'.", window, size);
+        Duration trendingWindow = parseWindow(window);
+        List<TrendingUriDto> trendingUris;
+        try {
+            // Ranked uris of unpublished or deleted events are skipped, so a few more are requested.
+            trendingUris = statClient.getTrendingUris(trendingWindow, size * 2, EVENT_URI_PREFIX);
+        } catch (StatServerUnavailableException e) {
+            log.warn("Stat server is unavailable, trending events are not available. Reason: {}", e.getMessage());
+            return List.of();
+        }
+        List<Event> events = eventService.findPublishedEventsByIds(toEventIds(trendingUris));
+        return eventMapper.toShortDtoList(events.subList(0, Math.min(size, events.size())));
+    }
+
     /**
      * Get full event info by event id. Number of endpoint hits is requested from stats server and used for number of
      * events views.
@@ -70,28 +123,109 @@ public class EventPublicController {
      * @return found event
      */
     @GetMapping("/{id}")
+    @QueryBudget(8)
     public EventFullDto getFullEventInfoById(@PathVariable Long id,
                                              HttpServletRequest request) {
         log.info("Requesting full event info with id '{}'.", id);
-        sendStatistics(request);
-        ViewStatsDto statistic = getStatisticsWithUniqueIp(request);
-        Long hits = statistic.getHits();
-        Event event = eventService.getFullEventInfoById(id, hits);
-        return eventMapper.toDto(event);
+        EndpointHitDto endpointHitDto = sendStatistics(request);
+        Long hits = getUniqueIpHits(endpointHitDto);
+        // Concurrent requests of the same event share one load. Loaded dto is shared between requests,
+        // so views of current request are set on its copy.
+        EventFullDto loadedEvent = fullEventLoads.execute(id,
+                () -> eventMapper.toDto(eventService.getFullEventInfoById(id)));
+        if (hits == null) {
+            return loadedEvent;
+        }
+        eventService.updateEventViews(id, hits);
+        return loadedEvent.toBuilder()
+                .views(Math.max(loadedEvent.getViews(), hits))
+                .build();
     }
 
-    private void sendStatistics(HttpServletRequest request) {
+    private EndpointHitDto sendStatistics(HttpServletRequest request) {
         EndpointHitDto endpointHitDto = EndpointHitDto.builder()
                 .app(SERVICE_ID)
                 .ip(request.getRemoteAddr())
                 .uri(request.getRequestURI())
                 .timestamp(LocalDateTime.now())
                 .build();
-        statClient.methodHit(endpointHitDto);
+        statOutboxService.append(endpointHitDto);
+        return endpointHitDto;
+    }
+
+    /**
+     * Get comments of published event, newest first. Next page is requested with cursor returned with current page.
+     *
+     * @param id     event id
+     * @param cursor position returned with previous page (absent for first page)
+     * @param size   number of comments to display
+     * @return page of comments and cursor of next page, if any
+     */
+    @GetMapping("/{id}/comments")
+    @QueryBudget(3)
+    public CommentPageDto findEventComments(@PathVariable Long id,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "10") @Positive Integer size) {
+        log.info("Requesting comments of event with id '{}', cursor: '{}', size: '{}'.", id, cursor, size);
+        CommentCursor commentCursor = cursor == null ? null : CommentCursor.decode(cursor);
+        CommentPage commentPage = eventService.findEventComments(id, commentCursor, size);
+        return commentMapper.toPageDto(commentPage);
     }
 
-    private ViewStatsDto getStatisticsWithUniqueIp(HttpServletRequest request) {
-        return statClient.getUniqueIpStatsForUri(request.getRequestURI());
+    /**
+     * Unique ip hits of the uri. Hits are relayed from the outbox in background, so stat server may not know recent
+     * hits yet. Hit of current request is counted locally, if this IP was not counted for the uri yet; hits of other
+     * recent requests become visible after relay.
+     *
+     * @param endpointHitDto hit of current request
+     * @return number of hits or null, if stat server is unavailable and persisted views should be used instead
+     */
+    private Long getUniqueIpHits(EndpointHitDto endpointHitDto) {
+        String uri = endpointHitDto.getUri();
+        ViewStatsDto statistic;
+        try {
+            statistic = statClient.getUniqueIpStatsWithPendingHit(endpointHitDto);
+        } catch (StatServerUnavailableException e) {
+            log.warn("Stat server is unavailable, persisted views are used for uri '{}'. Reason: {}",
+                    uri, e.getMessage());
+            return null;
+        }
+        return statistic == null ? 0L : statistic.getHits();
+    }
+
+    private Duration parseWindow(String window) {
+        try {
+            return DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new IncorrectSearchFilterException("Wrong window: '" + window + "'.");
+        }
+    }
+
+    private List<Long> toEventIds(List<TrendingUriDto> trendingUris) {
+        List<Long> eventIds = new ArrayList<>(trendingUris.size());
+        for (TrendingUriDto trendingUri : trendingUris) {
+            try {
+                eventIds.add(Long.valueOf(trendingUri.getUri().substring(EVENT_URI_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                log.debug("Uri '{}' is not an event uri.", trendingUri.getUri());
+            }
+        }
+        return eventIds;
+    }
+
+    private void validateLocation(EventSearchFilter searchFilter) {
+        if (!searchFilter.hasLocation()) {
+            return;
+        }
+        if (searchFilter.getLat() == null || searchFilter.getLon() == null || searchFilter.getRadius() == null) {
+            throw new IncorrectSearchFilterException("Parameters 'lat', 'lon' and 'radius' must be specified together.");
+        }
+        if (Math.abs(searchFilter.getLat()) > 90 || Math.abs(searchFilter.getLon()) > 180) {
+            throw new IncorrectSearchFilterException("Wrong coordinates.");
+        }
+        if (searchFilter.getRadius() <= 0) {
+            throw new IncorrectSearchFilterException("Radius must be positive.");
+        }
     }
 
     private void validateDateRange(EventSearchFilter searchFilter) {
@@ -0,0 +1,19 @@
+package ru.practicum.yandex.events.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CommentPageDto {
+
+    private List<CommentDto> comments;
+
+    private String nextCursor;
+}
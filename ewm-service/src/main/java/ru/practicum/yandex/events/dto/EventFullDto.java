@@ -16,7 +16,7 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class EventFullDto {
 
     private Long id;
@@ -55,5 +55,7 @@ public class EventFullDto {
 
     private LocationDto location;
 
+    private long commentsCount;
+
     private List<CommentDto> comments;
 }
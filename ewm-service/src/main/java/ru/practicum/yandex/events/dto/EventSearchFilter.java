@@ -30,4 +30,17 @@ public class EventSearchFilter {
     private boolean onlyAvailable;
 
     private EventSort sort;
+
+    private Double lat;
+
+    private Double lon;
+
+    /**
+     * Search radius around (lat, lon) in kilometers.
+     */
+    private Double radius;
+
+    public boolean hasLocation() {
+        return lat != null || lon != null || radius != null;
+    }
 }
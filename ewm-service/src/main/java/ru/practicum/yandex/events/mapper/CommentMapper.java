@@ -4,9 +4,11 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.yandex.events.dto.AddCommentDto;
 import ru.practicum.yandex.events.dto.CommentDto;
+import ru.practicum.yandex.events.dto.CommentPageDto;
 import ru.practicum.yandex.events.dto.ShortCommentDto;
 import ru.practicum.yandex.events.dto.UpdateCommentDto;
 import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.CommentPage;
 import ru.practicum.yandex.user.mapper.UserMapper;
 
 import java.util.List;
@@ -24,4 +26,7 @@ public interface CommentMapper {
     ShortCommentDto toShortDto(Comment comment);
 
     List<AddCommentDto> toDtoList(List<Comment> comments);
+
+    @Mapping(target = "nextCursor", expression = "java(commentPage.getNextCursor() == null ? null : commentPage.getNextCursor().encode())")
+    CommentPageDto toPageDto(CommentPage commentPage);
 }
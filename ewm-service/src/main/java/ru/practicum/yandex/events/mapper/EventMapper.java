@@ -2,6 +2,7 @@ package ru.practicum.yandex.events.mapper;
 
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import ru.practicum.yandex.category.mapper.CategoryMapper;
 import ru.practicum.yandex.category.model.Category;
@@ -25,10 +26,12 @@ public interface EventMapper {
 
     NewEvent toModel(NewEventDto newEventDto);
 
+    @Mapping(source = "latestComments", target = "comments")
     EventFullDto toDto(Event addedEvent);
 
     List<EventFullDto> toDtoList(List<Event> events);
 
+    @Mapping(source = "latestComments", target = "comments")
     EventShortDto toShortDto(Event event);
 
     List<EventShortDto> toShortDtoList(List<Event> events);
@@ -37,9 +40,8 @@ public interface EventMapper {
     void updateEvent(EventUpdateRequest updateEvent, @MappingTarget Event event);
 
     default Event toFullEvent(NewEvent newEventDto, Category category, User initiator, EventState state, Location location) {
-        return Event.builder()
+        Event event = Event.builder()
                 .annotation(newEventDto.getAnnotation())
-                .description(newEventDto.getDescription())
                 .title(newEventDto.getTitle())
                 .eventDate(newEventDto.getEventDate())
                 .category(category)
@@ -50,5 +52,7 @@ public interface EventMapper {
                 .requestModeration(newEventDto.isRequestModeration())
                 .location(location)
                 .build();
+        event.setDescription(newEventDto.getDescription());
+        return event;
     }
 }
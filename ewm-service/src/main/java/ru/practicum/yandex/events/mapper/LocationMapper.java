@@ -1,12 +1,14 @@
 package ru.practicum.yandex.events.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.yandex.events.dto.LocationDto;
 import ru.practicum.yandex.events.model.Location;
 
 @Mapper(componentModel = "spring")
 public interface LocationMapper {
 
+    @Mapping(target = "geohash", ignore = true)
     Location toModel(LocationDto locationDto);
 
     LocationDto toDto(Location location);
@@ -0,0 +1,51 @@
+package ru.practicum.yandex.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.yandex.shared.exception.IncorrectCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в ленте комментариев события, упорядоченной по убыванию (дата публикации, идентификатор). Клиенту передается
+ * в виде непрозрачной строки.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime postedOn;
+
+    private final Long id;
+
+    public static CommentCursor of(Comment comment) {
+        return new CommentCursor(comment.getPostedOn(), comment.getId());
+    }
+
+    /**
+     * Восстановление позиции из строки, полученной от клиента.
+     *
+     * @param cursor строка, полученная из {@link #encode()}
+     * @return позиция в ленте комментариев
+     */
+    public static CommentCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            return new CommentCursor(LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    Long.valueOf(decoded.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IncorrectCursorException("Некорректная позиция в списке комментариев: '" + cursor + "'.");
+        }
+    }
+
+    public String encode() {
+        String raw = postedOn + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.yandex.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class CommentPage {
+
+    private final List<Comment> comments;
+
+    private final CommentCursor nextCursor;
+}
@@ -25,13 +25,21 @@ import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+import javax.persistence.PrimaryKeyJoinColumn;
+import javax.persistence.SecondaryTable;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "events")
+@SecondaryTable(name = "event_counters", pkJoinColumns = @PrimaryKeyJoinColumn(name = "event_id"))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -41,7 +49,8 @@ import java.util.List;
 public class Event {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_id_seq")
+    @SequenceGenerator(name = "events_id_seq", sequenceName = "events_id_seq", allocationSize = 50)
     private Long id;
 
     private String annotation;
@@ -60,7 +69,9 @@ public class Event {
 
     private Boolean paid;
 
-    private String description;
+    @OneToOne(mappedBy = "event", fetch = FetchType.LAZY, optional = false, cascade = CascadeType.ALL)
+    @ToString.Exclude
+    private EventDetails details;
 
     private String title;
 
@@ -85,16 +96,30 @@ public class Event {
     @ToString.Exclude
     private Location location;
 
-    @Column(name = "confirmed_requests")
+    /**
+     * Счетчики хранятся в узкой таблице event_counters. Строка счетчиков создается вместе с событием, а изменяется
+     * только условными запросами {@link ru.practicum.yandex.events.repository.EventCountersRepository}, поэтому
+     * изменение события не перезаписывает счетчики, а изменение счетчиков не затрагивает строку события.
+     */
+    @Column(name = "confirmed_requests", table = "event_counters", updatable = false)
     private int numberOfParticipants;
 
+    @Column(table = "event_counters", updatable = false)
     private long views;
 
+    @Column(name = "comments_count", table = "event_counters", updatable = false)
+    private long commentsCount;
+
     @OneToMany
     @JoinColumn(name = "event_id")
     @ToString.Exclude
     private final List<Comment> comments = new ArrayList<>();
 
+    @Transient
+    @ToString.Exclude
+    @Builder.Default
+    private List<Comment> latestComments = new ArrayList<>();
+
     @ManyToMany
     @JoinTable(
             name = "event_compilation",
@@ -102,7 +127,20 @@ public class Event {
             inverseJoinColumns = @JoinColumn(name = "compilation_id")
     )
     @ToString.Exclude
-    private final List<Compilation> compilations = new ArrayList<>();
+    private final Set<Compilation> compilations = new HashSet<>();
+
+    public String getDescription() {
+        return details == null ? null : details.getDescription();
+    }
+
+    public void setDescription(String description) {
+        if (details == null) {
+            details = EventDetails.builder()
+                    .event(this)
+                    .build();
+        }
+        details.setDescription(description);
+    }
 
     public int addParticipant() {
         return ++numberOfParticipants;
@@ -111,8 +149,4 @@ public class Event {
     public void addToCompilation(Compilation compilation) {
         compilations.add(compilation);
     }
-
-    public void addCommentToEvent(Comment comment) {
-        comments.add(comment);
-    }
 }
@@ -0,0 +1,40 @@
+package ru.practicum.yandex.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Часто изменяемые счетчики события, вынесенные из широкой строки таблицы events. Событие читает их через
+ * вторичную таблицу, а массовые изменения счетчиков выполняются через эту сущность и затрагивают только узкую строку.
+ */
+@Entity
+@Table(name = "event_counters")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class EventCounters {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    private long views;
+
+    @Column(name = "confirmed_requests")
+    private int confirmedRequests;
+
+    @Column(name = "comments_count")
+    private long commentsCount;
+}
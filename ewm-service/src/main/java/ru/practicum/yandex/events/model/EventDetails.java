@@ -0,0 +1,44 @@
+package ru.practicum.yandex.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.MapsId;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+
+/**
+ * Длинные текстовые поля события. Хранятся отдельно от строки events и загружаются только при обращении к ним,
+ * поэтому списки событий, подборки и запросы на участие не читают полное описание.
+ */
+@Entity
+@Table(name = "event_details")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class EventDetails {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id")
+    @ToString.Exclude
+    private Event event;
+
+    private String description;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.yandex.events.model;
+
+/**
+ * Проекция события для проверки лимита участников и предварительной модерации.
+ */
+public interface EventLimitModerationView {
+
+    Long getId();
+
+    int getParticipantLimit();
+
+    boolean isRequestModeration();
+
+    int getNumberOfParticipants();
+}
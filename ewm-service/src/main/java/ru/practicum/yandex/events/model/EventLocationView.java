@@ -0,0 +1,15 @@
+package ru.practicum.yandex.events.model;
+
+/**
+ * Проекция места проведения события для геопространственного индекса.
+ */
+public interface EventLocationView {
+
+    Long getEventId();
+
+    Float getLat();
+
+    Float getLon();
+
+    String getGeohash();
+}
@@ -0,0 +1,13 @@
+package ru.practicum.yandex.events.model;
+
+/**
+ * Проекция события для проверки инициатора и состояния события.
+ */
+public interface EventOwnerStateView {
+
+    Long getId();
+
+    Long getInitiatorId();
+
+    EventState getState();
+}
@@ -0,0 +1,10 @@
+package ru.practicum.yandex.events.model;
+
+/**
+ * Проекция события с полями, необходимыми для проверки и приема запроса на участие.
+ */
+public interface EventParticipationView extends EventOwnerStateView, EventLimitModerationView {
+
+    @Override
+    Long getId();
+}
@@ -7,11 +7,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import ru.practicum.yandex.shared.Geohash;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 @Entity
@@ -25,10 +29,19 @@ import javax.persistence.Table;
 public class Location {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "locations_id_seq")
+    @SequenceGenerator(name = "locations_id_seq", sequenceName = "locations_id_seq", allocationSize = 50)
     private Long id;
 
     private Float lat;
 
     private Float lon;
+
+    private String geohash;
+
+    @PrePersist
+    @PreUpdate
+    private void updateGeohash() {
+        geohash = Geohash.encode(lat, lon, Geohash.MAX_PRECISION);
+    }
 }
@@ -1,13 +1,63 @@
 package ru.practicum.yandex.events.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.yandex.events.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.id = ?1")
     Optional<Comment> findCommentById(Long commentId);
+
+    /**
+     * Находит первую страницу комментариев события, начиная с самых новых.
+     *
+     * @param eventId  идентификатор события
+     * @param pageable размер страницы
+     * @return комментарии с авторами
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author " +
+            "WHERE c.event.id = :eventId " +
+            "ORDER BY c.postedOn DESC, c.id DESC")
+    List<Comment> findFirstPageByEventId(Long eventId, Pageable pageable);
+
+    /**
+     * Находит страницу комментариев события, следующих за указанной позицией в порядке убывания (дата публикации,
+     * идентификатор).
+     *
+     * @param eventId  идентификатор события
+     * @param postedOn дата публикации последнего комментария предыдущей страницы
+     * @param id       идентификатор последнего комментария предыдущей страницы
+     * @param pageable размер страницы
+     * @return комментарии с авторами
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author " +
+            "WHERE c.event.id = :eventId " +
+            "AND (c.postedOn < :postedOn OR (c.postedOn = :postedOn AND c.id < :id)) " +
+            "ORDER BY c.postedOn DESC, c.id DESC")
+    List<Comment> findPageByEventIdAfter(Long eventId, LocalDateTime postedOn, Long id, Pageable pageable);
+
+    /**
+     * Находит идентификаторы последних комментариев каждого события.
+     *
+     * @param eventIds идентификаторы событий
+     * @param limit    количество последних комментариев для каждого события
+     * @return идентификаторы последних комментариев
+     */
+    @Query(value = "SELECT ranked.id FROM (" +
+            "SELECT c.id, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.event_id ORDER BY c.created DESC, c.id DESC) AS comment_rank " +
+            "FROM event_comments c WHERE c.event_id IN (:eventIds)) ranked " +
+            "WHERE ranked.comment_rank <= :limit",
+            nativeQuery = true)
+    List<Long> findLatestCommentIdsByEventIdIn(Collection<Long> eventIds, int limit);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.id IN :ids ORDER BY c.postedOn, c.id")
+    List<Comment> findAllWithAuthorByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,56 @@
+package ru.practicum.yandex.events.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.yandex.events.model.EventCounters;
+
+public interface EventCountersRepository extends JpaRepository<EventCounters, Long> {
+
+    /**
+     * Увеличивает количество подтвержденных участников события, если лимит участников не достигнут.
+     *
+     * @param eventId идентификатор события
+     * @return количество обновленных строк: 0, если лимит участников уже достигнут
+     */
+    @Modifying
+    @Query("UPDATE EventCounters c SET c.confirmedRequests = c.confirmedRequests + 1 " +
+            "WHERE c.eventId = :eventId AND EXISTS (SELECT e.id FROM Event e WHERE e.id = :eventId " +
+            "AND (e.participantLimit = 0 OR c.confirmedRequests < e.participantLimit))")
+    int incrementConfirmedRequestsIfLimitNotReached(Long eventId);
+
+    /**
+     * Увеличивает количество подтвержденных участников события на указанное число, если после этого лимит участников
+     * не будет превышен.
+     *
+     * @param eventId идентификатор события
+     * @param count   количество новых участников
+     * @return количество обновленных строк: 0, если лимит участников был бы превышен
+     */
+    @Modifying
+    @Query("UPDATE EventCounters c SET c.confirmedRequests = c.confirmedRequests + :count " +
+            "WHERE c.eventId = :eventId AND EXISTS (SELECT e.id FROM Event e WHERE e.id = :eventId " +
+            "AND (e.participantLimit = 0 OR c.confirmedRequests + :count <= e.participantLimit))")
+    int addConfirmedRequestsIfLimitNotExceeded(Long eventId, int count);
+
+    /**
+     * Сохраняет количество просмотров события, если оно больше сохраненного. Устаревшая статистика не уменьшает
+     * количество просмотров.
+     *
+     * @param eventId идентификатор события
+     * @param views   количество просмотров
+     */
+    @Modifying
+    @Query("UPDATE EventCounters c SET c.views = :views WHERE c.eventId = :eventId AND c.views < :views")
+    void updateViews(Long eventId, long views);
+
+    /**
+     * Изменяет количество комментариев события.
+     *
+     * @param eventId идентификатор события
+     * @param delta   изменение количества комментариев
+     */
+    @Modifying
+    @Query("UPDATE EventCounters c SET c.commentsCount = c.commentsCount + :delta WHERE c.eventId = :eventId")
+    void addComments(Long eventId, long delta);
+}
@@ -1,10 +1,18 @@
 package ru.practicum.yandex.events.repository;
 
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.EventLimitModerationView;
+import ru.practicum.yandex.events.model.EventLocationView;
+import ru.practicum.yandex.events.model.EventOwnerStateView;
+import ru.practicum.yandex.events.model.EventParticipationView;
+import ru.practicum.yandex.events.model.EventState;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +22,28 @@ import java.util.Optional;
  */
 public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
 
+    /**
+     * Находит страницу событий по спецификации с загрузкой категории, инициатора и места проведения в том же запросе,
+     * чтобы преобразование списка в DTO не выполняло отдельный запрос на каждое событие.
+     *
+     * @param spec     спецификация для фильтрации
+     * @param pageable параметры пагинации
+     * @return страница событий
+     */
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
+    Page<Event> findAll(Specification<Event> spec, Pageable pageable);
+
+    /**
+     * Находит события по идентификаторам с загрузкой категории и инициатора в том же запросе.
+     *
+     * @param ids идентификаторы событий
+     * @return список найденных событий
+     */
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    List<Event> findAllById(Iterable<Long> ids);
+
     /**
      * Находит события по идентификатору пользователя с полной загрузкой зависимостей.
      *
@@ -25,7 +55,6 @@ public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecific
             "JOIN FETCH e.category c " +
             "JOIN FETCH e.initiator i " +
             "JOIN FETCH e.location l " +
-            "LEFT JOIN FETCH e.comments cm " +
             "WHERE i.id = :userId")
     List<Event> findEventsByUserId(Long userId, Pageable pageable);
 
@@ -39,10 +68,51 @@ public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecific
             "JOIN FETCH e.category c " +
             "JOIN FETCH e.initiator i " +
             "JOIN FETCH e.location l " +
-            "LEFT JOIN FETCH e.comments cm " +
             "WHERE e.id = :eventId")
     Optional<Event> findFullEventById(Long eventId);
 
+    /**
+     * Находит места проведения событий в указанном состоянии.
+     *
+     * @param state состояние события
+     * @return проекции мест проведения событий
+     */
+    @Query("SELECT e.id AS eventId, l.lat AS lat, l.lon AS lon, l.geohash AS geohash " +
+            "FROM Event e JOIN e.location l WHERE e.state = :state")
+    List<EventLocationView> findEventLocationsByState(EventState state);
+
+    /**
+     * Находит инициатора и состояние события без загрузки связанных сущностей.
+     *
+     * @param eventId идентификатор события
+     * @return опционально проекция события
+     */
+    @Query("SELECT e.id AS id, e.initiator.id AS initiatorId, e.state AS state FROM Event e WHERE e.id = :eventId")
+    Optional<EventOwnerStateView> findOwnerAndStateById(Long eventId);
+
+    /**
+     * Находит лимит участников, количество подтвержденных участников и признак модерации события.
+     *
+     * @param eventId идентификатор события
+     * @return опционально проекция события
+     */
+    @Query("SELECT e.id AS id, e.participantLimit AS participantLimit, e.requestModeration AS requestModeration, " +
+            "e.numberOfParticipants AS numberOfParticipants " +
+            "FROM Event e WHERE e.id = :eventId")
+    Optional<EventLimitModerationView> findLimitAndModerationById(Long eventId);
+
+    /**
+     * Находит поля события, необходимые для приема запроса на участие, без загрузки связанных сущностей.
+     *
+     * @param eventId идентификатор события
+     * @return опционально проекция события
+     */
+    @Query("SELECT e.id AS id, e.initiator.id AS initiatorId, e.state AS state, " +
+            "e.participantLimit AS participantLimit, e.requestModeration AS requestModeration, " +
+            "e.numberOfParticipants AS numberOfParticipants " +
+            "FROM Event e WHERE e.id = :eventId")
+    Optional<EventParticipationView> findParticipationViewById(Long eventId);
+
     /**
      * Подсчитывает количество событий в категории.
      *
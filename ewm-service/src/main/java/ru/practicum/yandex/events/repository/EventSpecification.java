@@ -3,8 +3,15 @@ package ru.practicum.yandex.events.repository;
 import org.springframework.data.jpa.domain.Specification;
 import ru.practicum.yandex.events.model.Event;
 import ru.practicum.yandex.events.model.EventState;
+import ru.practicum.yandex.events.model.Location;
+import ru.practicum.yandex.shared.Geohash;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,7 +38,7 @@ public class EventSpecification {
                 criteriaBuilder.or(
                         criteriaBuilder.like(criteriaBuilder.lower(root.get("annotation")),
                                 "%" + text.toLowerCase() + "%"),
-                        criteriaBuilder.like(criteriaBuilder.lower(root.get("description")),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.join("details").get("description")),
                                 "%" + text.toLowerCase() + "%")
                 );
     }
@@ -139,6 +146,59 @@ public class EventSpecification {
                 root.get("numberOfParticipants"));
     }
 
+    /**
+     * Фильтр по идентификаторам событий.
+     *
+     * @param eventIds идентификаторы событий
+     * @return спецификация для поиска событий
+     */
+    public static Specification<Event> idIn(Collection<Long> eventIds) {
+        if (eventIds == null) {
+            return Specification.where(null);
+        }
+        if (eventIds.isEmpty()) {
+            return (root, query, criteriaBuilder) -> criteriaBuilder.disjunction();
+        }
+        return (root, query, criteriaBuilder) -> criteriaBuilder.in(root.get("id")).value(eventIds);
+    }
+
+    /**
+     * Фильтр по расстоянию от точки до места проведения события. Места отбираются по префиксам geohash (используется
+     * индекс по geohash), а затем по расстоянию, вычисленному по формуле гаверсинусов в базе данных.
+     *
+     * @param geohashPrefixes префиксы geohash ячеек, покрывающих окружность; пустой префикс означает весь земной шар
+     * @param lat             широта точки
+     * @param lon             долгота точки
+     * @param radiusKm        расстояние в километрах
+     * @return спецификация для поиска событий
+     */
+    public static Specification<Event> locationWithin(Collection<String> geohashPrefixes, double lat, double lon,
+                                                      double radiusKm) {
+        double maxHaversine = Math.pow(Math.sin(Math.min(radiusKm / Geohash.EARTH_RADIUS_KM, Math.PI) / 2), 2);
+        return (root, query, criteriaBuilder) -> {
+            Join<Event, Location> location = root.join("location");
+            Expression<Number> locationLat = location.get("lat");
+            Expression<Number> locationLon = location.get("lon");
+            Expression<Double> latHalfSin = sin(criteriaBuilder, criteriaBuilder.prod(
+                    criteriaBuilder.diff(locationLat, lat), Math.PI / 360));
+            Expression<Double> lonHalfSin = sin(criteriaBuilder, criteriaBuilder.prod(
+                    criteriaBuilder.diff(locationLon, lon), Math.PI / 360));
+            Expression<Double> locationLatCos = cos(criteriaBuilder, criteriaBuilder.prod(locationLat, Math.PI / 180));
+            Expression<Number> haversine = criteriaBuilder.sum(
+                    criteriaBuilder.prod(latHalfSin, latHalfSin),
+                    criteriaBuilder.prod(criteriaBuilder.prod(locationLatCos, Math.cos(Math.toRadians(lat))),
+                            criteriaBuilder.prod(lonHalfSin, lonHalfSin)));
+            Predicate withinRadius = criteriaBuilder.le(haversine, maxHaversine);
+            if (geohashPrefixes.contains("")) {
+                return withinRadius;
+            }
+            Predicate[] inCells = geohashPrefixes.stream()
+                    .map(prefix -> criteriaBuilder.like(location.get("geohash"), prefix + "%"))
+                    .toArray(Predicate[]::new);
+            return criteriaBuilder.and(criteriaBuilder.or(inCells), withinRadius);
+        };
+    }
+
     /**
      * Сортировка по количеству комментариев.
      *
@@ -148,9 +208,7 @@ public class EventSpecification {
     public static Specification<Event> orderByNumberOfComments(Specification<Event> spec) {
         return (root, query, criteriaBuilder) -> {
             query.orderBy(
-                    criteriaBuilder.desc(
-                            criteriaBuilder.size(root.get("comments"))
-                    ));
+                    criteriaBuilder.desc(root.get("commentsCount")));
             return spec.toPredicate(root, query, criteriaBuilder);
         };
     }
@@ -196,4 +254,12 @@ public class EventSpecification {
             return spec.toPredicate(root, query, criteriaBuilder);
         };
     }
+
+    private static Expression<Double> sin(CriteriaBuilder criteriaBuilder, Expression<? extends Number> radians) {
+        return criteriaBuilder.function("sin", Double.class, radians);
+    }
+
+    private static Expression<Double> cos(CriteriaBuilder criteriaBuilder, Expression<? extends Number> radians) {
+        return criteriaBuilder.function("cos", Double.class, radians);
+    }
 }
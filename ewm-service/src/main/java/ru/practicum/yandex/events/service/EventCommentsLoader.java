@@ -0,0 +1,68 @@
+package ru.practicum.yandex.events.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.repository.CommentRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Загрузка последних комментариев для событий. Для любого количества событий выполняется не более двух запросов:
+ * выборка идентификаторов последних комментариев по каждому событию и загрузка найденных комментариев вместе
+ * с авторами. Количество комментариев хранится в таблице счетчиков события и здесь не пересчитывается.
+ */
+@Component
+public class EventCommentsLoader {
+
+    private final CommentRepository commentRepository;
+
+    private final int latestCommentsCount;
+
+    public EventCommentsLoader(CommentRepository commentRepository,
+                               @Value("${ewm.comments.latest-count:10}") int latestCommentsCount) {
+        if (latestCommentsCount < 1) {
+            throw new IllegalArgumentException("Количество последних комментариев должно быть положительным.");
+        }
+        this.commentRepository = commentRepository;
+        this.latestCommentsCount = latestCommentsCount;
+    }
+
+    /**
+     * Заполнение последних комментариев события.
+     *
+     * @param event событие
+     * @return то же событие
+     */
+    public Event loadLatestComments(Event event) {
+        loadLatestComments(List.of(event));
+        return event;
+    }
+
+    /**
+     * Заполнение последних комментариев событий. Последние комментарии каждого события
+     * упорядочены по возрастанию даты публикации: самый новый комментарий идет последним.
+     *
+     * @param events события
+     */
+    public void loadLatestComments(Collection<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<Long, Event> eventsById = events.stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity(), (first, second) -> first));
+        List<Long> commentIds = commentRepository.findLatestCommentIdsByEventIdIn(eventsById.keySet(), latestCommentsCount);
+        Map<Long, List<Comment>> latestComments = commentIds.isEmpty() ? Map.of() : commentRepository
+                .findAllWithAuthorByIdIn(commentIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getEvent().getId()));
+        events.forEach(event -> {
+            event.setLatestComments(latestComments.getOrDefault(event.getId(), new ArrayList<>()));
+        });
+    }
+}
@@ -0,0 +1,199 @@
+package ru.practicum.yandex.events.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.EventLocationView;
+import ru.practicum.yandex.events.model.EventState;
+import ru.practicum.yandex.events.model.Location;
+import ru.practicum.yandex.events.repository.EventRepository;
+import ru.practicum.yandex.shared.Geohash;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Индекс мест проведения опубликованных событий в памяти. События упорядочены по geohash места проведения, поэтому
+ * кандидаты для поиска по радиусу выбираются просмотром диапазонов ключей с префиксами ячеек, покрывающих окружность,
+ * а затем отфильтровываются по точному расстоянию. Количество найденных событий ограничено, чтобы их идентификаторы
+ * можно было передать в запрос к базе данных; при большем количестве поиск выполняется базой данных.
+ * <p>
+ * Индекс только ускоряет поиск и не заменяет базу данных. До первого построения индекса поиск выполняется базой
+ * данных. Изменения событий на этом экземпляре приложения применяются сразу после фиксации транзакции, а изменения,
+ * выполненные другими экземплярами, попадают в индекс при периодическом перестроении. Перестроенный индекс
+ * подменяет текущий целиком, поэтому во время перестроения поиск продолжает работать по прежнему индексу.
+ */
+@Component
+@Slf4j
+public class EventGeoIndex {
+
+    private static final char KEY_SEPARATOR = '#';
+
+    private final EventRepository eventRepository;
+
+    private final int maxFoundEvents;
+
+    private final Object updateLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    private List<Consumer<Snapshot>> updatesDuringRebuild;
+
+    public EventGeoIndex(EventRepository eventRepository,
+                         @Value("${ewm.geo-index.max-found-events:1000}") int maxFoundEvents) {
+        if (maxFoundEvents < 1) {
+            throw new IllegalArgumentException("Максимальное количество найденных событий должно быть положительным.");
+        }
+        this.eventRepository = eventRepository;
+        this.maxFoundEvents = maxFoundEvents;
+    }
+
+    /**
+     * Построение индекса по опубликованным событиям при запуске приложения и его периодическое перестроение.
+     * Изменения, зафиксированные этим экземпляром во время загрузки мест проведения, повторяются на новом индексе
+     * перед подменой, чтобы загрузка, начатая до фиксации, не вернула устаревшее место проведения.
+     */
+    @Scheduled(fixedDelayString = "${ewm.geo-index.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        synchronized (updateLock) {
+            updatesDuringRebuild = new ArrayList<>();
+        }
+        Snapshot rebuilt = new Snapshot();
+        List<EventLocationView> locations;
+        try {
+            locations = eventRepository.findEventLocationsByState(EventState.PUBLISHED);
+        } catch (RuntimeException e) {
+            synchronized (updateLock) {
+                updatesDuringRebuild = null;
+            }
+            throw e;
+        }
+        locations.forEach(location -> rebuilt.put(location.getEventId(), location.getLat(), location.getLon(),
+                location.getGeohash()));
+        synchronized (updateLock) {
+            updatesDuringRebuild.forEach(update -> update.accept(rebuilt));
+            updatesDuringRebuild = null;
+            snapshot = rebuilt;
+        }
+        log.debug("Геопространственный индекс построен, количество событий: '{}'.", locations.size());
+    }
+
+    /**
+     * Обновление события в индексе: опубликованное событие добавляется или переносится, остальные удаляются. Внутри
+     * транзакции индекс обновляется после ее фиксации, чтобы откат не оставлял в индексе несохраненных изменений.
+     *
+     * @param event событие
+     */
+    public void index(Event event) {
+        Long eventId = event.getId();
+        Location location = event.getLocation();
+        Consumer<Snapshot> update;
+        if (event.getState() == EventState.PUBLISHED && location != null) {
+            double lat = location.getLat();
+            double lon = location.getLon();
+            String geohash = Geohash.encode(lat, lon, Geohash.MAX_PRECISION);
+            update = index -> index.put(eventId, lat, lon, geohash);
+        } else {
+            update = index -> index.remove(eventId);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(update);
+            }
+        });
+    }
+
+    /**
+     * Поиск опубликованных событий, место проведения которых находится не дальше указанного расстояния от точки.
+     *
+     * @param lat      широта точки
+     * @param lon      долгота точки
+     * @param radiusKm расстояние в километрах
+     * @return идентификаторы событий или пустое значение, если индекс еще не построен или событий больше допустимого
+     * количества
+     */
+    public Optional<Set<Long>> findEventIdsWithin(double lat, double lon, double radiusKm) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        Set<Long> eventIds = new HashSet<>();
+        for (String prefix : Geohash.coveringPrefixes(lat, lon, radiusKm)) {
+            for (IndexedLocation candidate : current.locationsByGeohash.subMap(prefix, prefix + Character.MAX_VALUE)
+                    .values()) {
+                if (Geohash.distanceKm(lat, lon, candidate.lat, candidate.lon) <= radiusKm
+                        && eventIds.add(candidate.eventId) && eventIds.size() > maxFoundEvents) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.of(eventIds);
+    }
+
+    private void apply(Consumer<Snapshot> update) {
+        synchronized (updateLock) {
+            Snapshot current = snapshot;
+            if (current != null) {
+                update.accept(current);
+            }
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(update);
+            }
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final ConcurrentNavigableMap<String, IndexedLocation> locationsByGeohash = new ConcurrentSkipListMap<>();
+
+        private final ConcurrentMap<Long, String> keysByEventId = new ConcurrentHashMap<>();
+
+        private void put(Long eventId, double lat, double lon, String geohash) {
+            String key = geohash + KEY_SEPARATOR + eventId;
+            String previousKey = keysByEventId.put(eventId, key);
+            if (previousKey != null && !previousKey.equals(key)) {
+                locationsByGeohash.remove(previousKey);
+            }
+            locationsByGeohash.put(key, new IndexedLocation(eventId, lat, lon));
+        }
+
+        private void remove(Long eventId) {
+            String key = keysByEventId.remove(eventId);
+            if (key != null) {
+                locationsByGeohash.remove(key);
+            }
+        }
+    }
+
+    private static final class IndexedLocation {
+
+        private final Long eventId;
+
+        private final double lat;
+
+        private final double lon;
+
+        private IndexedLocation(Long eventId, double lat, double lon) {
+            this.eventId = eventId;
+            this.lat = lat;
+            this.lon = lon;
+        }
+    }
+}
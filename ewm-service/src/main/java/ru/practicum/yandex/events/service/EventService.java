@@ -4,6 +4,8 @@ import ru.practicum.yandex.events.dto.EventAdminSearchFilter;
 import ru.practicum.yandex.events.dto.EventSearchFilter;
 import ru.practicum.yandex.events.dto.EventUpdateRequest;
 import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.CommentCursor;
+import ru.practicum.yandex.events.model.CommentPage;
 import ru.practicum.yandex.events.model.Event;
 
 import java.util.List;
@@ -11,7 +13,11 @@ import java.util.List;
 public interface EventService {
     List<Event> findEvents(EventSearchFilter searchFilter, Long from, Integer size);
 
-    Event getFullEventInfoById(Long id, Long views);
+    List<Event> findPublishedEventsByIds(List<Long> ids);
+
+    Event getFullEventInfoById(Long id);
+
+    void updateEventViews(Long id, Long views);
 
     List<Event> getFullEventsInfoByAdmin(EventAdminSearchFilter searchFilter, Long from, Integer size);
 
@@ -22,4 +28,6 @@ public interface EventService {
     Event updateComment(Long userId, Long commentId, Comment commentRequest);
 
     void deleteComment(Long userId, Long commentId);
+
+    CommentPage findEventComments(Long eventId, CommentCursor cursor, Integer size);
 }
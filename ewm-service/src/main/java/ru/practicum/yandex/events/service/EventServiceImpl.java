@@ -1,7 +1,10 @@
 package ru.practicum.yandex.events.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,21 +14,31 @@ import ru.practicum.yandex.events.dto.EventSort;
 import ru.practicum.yandex.events.dto.EventUpdateRequest;
 import ru.practicum.yandex.events.mapper.EventMapper;
 import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.CommentCursor;
+import ru.practicum.yandex.events.model.CommentPage;
 import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.EventOwnerStateView;
 import ru.practicum.yandex.events.model.EventState;
 import ru.practicum.yandex.events.repository.CommentRepository;
+import ru.practicum.yandex.events.repository.EventCountersRepository;
 import ru.practicum.yandex.events.repository.EventRepository;
 import ru.practicum.yandex.events.repository.EventSpecification;
+import ru.practicum.yandex.shared.Geohash;
 import ru.practicum.yandex.shared.OffsetPageRequest;
+import ru.practicum.yandex.shared.RequestIdentityCache;
 import ru.practicum.yandex.shared.exception.NotAuthorizedException;
 import ru.practicum.yandex.shared.exception.NotFoundException;
+import ru.practicum.yandex.shared.metrics.MetricsConfig;
 import ru.practicum.yandex.user.dto.StateAction;
 import ru.practicum.yandex.user.model.User;
 import ru.practicum.yandex.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -33,6 +46,7 @@ import static ru.practicum.yandex.events.repository.EventSpecification.categorie
 import static ru.practicum.yandex.events.repository.EventSpecification.eventDateInRange;
 import static ru.practicum.yandex.events.repository.EventSpecification.eventStatusEquals;
 import static ru.practicum.yandex.events.repository.EventSpecification.eventStatusIn;
+import static ru.practicum.yandex.events.repository.EventSpecification.idIn;
 import static ru.practicum.yandex.events.repository.EventSpecification.initiatorIdIn;
 import static ru.practicum.yandex.events.repository.EventSpecification.isAvailable;
 import static ru.practicum.yandex.events.repository.EventSpecification.isPaid;
@@ -41,16 +55,25 @@ import static ru.practicum.yandex.events.repository.EventSpecification.textInAnn
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(MetricsConfig.SERVICE_METHOD_TIMER)
 public class EventServiceImpl implements EventService {
 
     private final EventRepository eventRepository;
 
+    private final EventCountersRepository eventCountersRepository;
+
     private final UserRepository userRepository;
 
     private final CommentRepository commentRepository;
 
     private final EventMapper eventMapper;
 
+    private final RequestIdentityCache identityCache;
+
+    private final EventCommentsLoader eventCommentsLoader;
+
+    private final EventGeoIndex eventGeoIndex;
+
     /**
      * Найти мероприятие в соответствии с фильтром поиска. Будут отображаться только опубликованные мероприятия. Поиск текста (в аннотации и
      * описании) нечувствителен к регистру. Если диапазон дат не указан, то будет отображено мероприятие с датой мероприятия после текущей даты.
@@ -61,35 +84,77 @@ public class EventServiceImpl implements EventService {
      * @return список мероприятий
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Event> findEvents(EventSearchFilter searchFilter, Long from, Integer size) {
         OffsetPageRequest pageRequest = OffsetPageRequest.of(from, size);
         List<Specification<Event>> specifications = eventSearchFilterToSpecifications(searchFilter);
         Specification<Event> resultSpec = specifications.stream().reduce(Specification::and).orElse(null);
         List<Event> events = eventRepository.findAll(getSort(searchFilter.getSort(), resultSpec),
                 pageRequest).getContent();
+        eventCommentsLoader.loadLatestComments(events);
         log.info("Запрос мероприятий с фильтром '{}'. Размер списка '{}'.", searchFilter, events.size());
         return events;
     }
 
     /**
-     * Получить полную информацию о мероприятии по его идентификатору. Мероприятие должно быть опубликовано.
+     * Найти опубликованные мероприятия по идентификаторам одним запросом. Мероприятия возвращаются в порядке
+     * идентификаторов; неопубликованные и несуществующие мероприятия пропускаются.
      *
-     * @param id    идентификатор мероприятия для поиска
-     * @param views количество просмотров мероприятия
+     * @param ids идентификаторы мероприятий
+     * @return список опубликованных мероприятий
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Event> findPublishedEventsByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.putIfAbsent(ids.get(i), i);
+        }
+        Specification<Event> spec = eventStatusEquals(EventState.PUBLISHED).and(idIn(positions.keySet()));
+        List<Event> events = new ArrayList<>(eventRepository.findAll(spec, Pageable.unpaged()).getContent());
+        events.sort(Comparator.comparing(event -> positions.get(event.getId())));
+        eventCommentsLoader.loadLatestComments(events);
+        log.info("Запрос опубликованных мероприятий по '{}' идентификаторам. Размер списка '{}'.", ids.size(), events.size());
+        return events;
+    }
+
+    /**
+     * Получить полную информацию о мероприятии по его идентификатору. Мероприятие должно быть опубликовано. Все
+     * ленивые связи, нужные для полного представления, инициализируются при загрузке.
+     *
+     * @param id идентификатор мероприятия для поиска
      * @return найденное мероприятие
      */
     @Override
-    public Event getFullEventInfoById(Long id, Long views) {
+    @Transactional(readOnly = true)
+    public Event getFullEventInfoById(Long id) {
         Event event = getEvent(id);
         if (!event.getState().equals(EventState.PUBLISHED)) {
             throw new NotFoundException("Мероприятие с идентификатором '" + id + "' не опубликовано. Состояние: '" + event.getState() + "'");
         }
-        event.setViews(views);
-        eventRepository.save(event);
+        Hibernate.initialize(event.getDetails());
+        eventCommentsLoader.loadLatestComments(event);
         log.info("Запрос полной информации о мероприятии с идентификатором '{}'.", id);
         return event;
     }
 
+    /**
+     * Сохранить количество просмотров мероприятия. Выполняется отдельно от чтения мероприятия, чтобы чтение могло
+     * обслуживаться репликой базы данных. Сохраненное количество просмотров не уменьшается.
+     *
+     * @param id    идентификатор мероприятия
+     * @param views количество просмотров мероприятия
+     */
+    @Override
+    @Transactional
+    public void updateEventViews(Long id, Long views) {
+        eventCountersRepository.updateViews(id, views);
+        identityCache.evict(Event.class, id);
+    }
+
     /**
      * Найти полную информацию о мероприятиях согласно фильтру. Если ничего не найдено, возвращает пустой список.
      *
@@ -104,6 +169,7 @@ public class EventServiceImpl implements EventService {
         List<Specification<Event>> specifications = eventAdminSearchFilterToSpecifications(searchFilter);
         List<Event> events = eventRepository.findAll(specifications.stream().reduce(Specification::and).orElse(null),
                 pageRequest).getContent();
+        eventCommentsLoader.loadLatestComments(events);
         log.info("Запрос полной информации о мероприятиях администратором с фильтром '{}'. Размер списка '{}'.", searchFilter, events.size());
         return events;
     }
@@ -123,8 +189,10 @@ public class EventServiceImpl implements EventService {
         eventMapper.updateEvent(updateRequest, event);
         updateEventState(updateRequest.getStateAction(), event);
         Event savedEvent = eventRepository.save(event);
+        evictEvent(eventId);
+        eventGeoIndex.index(savedEvent);
         log.info("Мероприятие с идентификатором '{}' было обновлено администратором.", eventId);
-        return savedEvent;
+        return eventCommentsLoader.loadLatestComments(savedEvent);
     }
 
     /**
@@ -136,16 +204,18 @@ public class EventServiceImpl implements EventService {
      * @return добавленный комментарий
      */
     @Override
+    @Transactional
     public Event addCommentToEvent(Long userId, Long eventId, Comment comment) {
         final User user = getUser(userId);
         final Event event = getEvent(eventId);
         comment.setAuthor(user);
         comment.setEvent(event);
-        Comment savedComment = commentRepository.save(comment);
-        event.addCommentToEvent(savedComment);
-        eventRepository.save(event);
+        commentRepository.save(comment);
+        eventCountersRepository.addComments(eventId, 1);
+        identityCache.evict(Event.class, eventId);
+        event.setCommentsCount(event.getCommentsCount() + 1);
         log.info("Пользователь с идентификатором '{}' добавил комментарий к мероприятию с идентификатором '{}'.", userId, eventId);
-        return event;
+        return eventCommentsLoader.loadLatestComments(event);
     }
 
     /**
@@ -158,14 +228,14 @@ public class EventServiceImpl implements EventService {
      */
     @Override
     public Event updateComment(Long userId, Long eventId, Comment updateComment) {
-        getUser(userId);
+        checkUserExists(userId);
         Comment comment = getComment(updateComment.getId());
         checkIfUserIsCommentAuthor(userId, comment);
         comment.setText(updateComment.getText());
         Comment updatedComment = commentRepository.save(comment);
         Event event = getEvent(eventId);
         log.info("Комментарий с идентификатором '" + updatedComment.getId() + "' был обновлен.");
-        return event;
+        return eventCommentsLoader.loadLatestComments(event);
     }
 
     /**
@@ -175,14 +245,47 @@ public class EventServiceImpl implements EventService {
      * @param commentId идентификатор комментария для удаления
      */
     @Override
+    @Transactional
     public void deleteComment(Long userId, Long commentId) {
-        getUser(userId);
+        checkUserExists(userId);
         Comment comment = getComment(commentId);
         checkIfUserIsCommentAuthor(userId, comment);
         commentRepository.deleteById(commentId);
+        eventCountersRepository.addComments(comment.getEvent().getId(), -1);
+        identityCache.evict(Event.class, comment.getEvent().getId());
         log.info("Комментарий с идентификатором '" + commentId + "' был удален пользователем с идентификатором '" + userId + "'.");
     }
 
+    /**
+     * Получить страницу комментариев опубликованного мероприятия, начиная с самых новых. Следующая страница
+     * запрашивается по позиции, возвращенной вместе с текущей страницей.
+     *
+     * @param eventId идентификатор мероприятия
+     * @param cursor  позиция, после которой начинается страница (для первой страницы не указывается)
+     * @param size    количество комментариев на странице
+     * @return страница комментариев и позиция следующей страницы, если она есть
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CommentPage findEventComments(Long eventId, CommentCursor cursor, Integer size) {
+        EventOwnerStateView event = eventRepository.findOwnerAndStateById(eventId)
+                .orElseThrow(() -> new NotFoundException("Мероприятие с идентификатором '" + eventId + "' не найдено."));
+        if (!event.getState().equals(EventState.PUBLISHED)) {
+            throw new NotFoundException("Мероприятие с идентификатором '" + eventId + "' не опубликовано. Состояние: '" + event.getState() + "'");
+        }
+        OffsetPageRequest pageRequest = OffsetPageRequest.of(0L, size + 1);
+        List<Comment> comments = cursor == null
+                ? commentRepository.findFirstPageByEventId(eventId, pageRequest)
+                : commentRepository.findPageByEventIdAfter(eventId, cursor.getPostedOn(), cursor.getId(), pageRequest);
+        CommentCursor nextCursor = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            nextCursor = CommentCursor.of(comments.get(size - 1));
+        }
+        log.info("Запрос комментариев мероприятия с идентификатором '{}'. Размер страницы '{}'.", eventId, comments.size());
+        return new CommentPage(comments, nextCursor);
+    }
+
     private void checkIfUserIsCommentAuthor(Long userId, Comment comment) {
         if (!comment.getAuthor().getId().equals(userId)) {
             throw new NotAuthorizedException("Пользователь с идентификатором '" + userId + "' не является автором комментария с идентификатором '" +
@@ -226,13 +329,24 @@ public class EventServiceImpl implements EventService {
     }
 
     private Event getEvent(Long id) {
-        return eventRepository.findFullEventById(id)
-                .orElseThrow(() -> new NotFoundException("Мероприятие с идентификатором '" + id + "' не найдено."));
+        return identityCache.get(Event.class, id, () -> eventRepository.findFullEventById(id)
+                .orElseThrow(() -> new NotFoundException("Мероприятие с идентификатором '" + id + "' не найдено.")));
+    }
+
+    private void evictEvent(Long eventId) {
+        identityCache.evict(Event.class, eventId);
+        identityCache.evict(EventOwnerStateView.class, eventId);
     }
 
     private User getUser(Long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с идентификатором '" + userId + "' не найден."));
+        return identityCache.get(User.class, userId, () -> userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с идентификатором '" + userId + "' не найден.")));
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!identityCache.exists(User.class, userId, () -> userRepository.existsById(userId))) {
+            throw new NotFoundException("Пользователь с идентификатором '" + userId + "' не найден.");
+        }
     }
 
     private Specification<Event> getSort(EventSort eventSort, Specification<Event> spec) {
@@ -259,9 +373,19 @@ public class EventServiceImpl implements EventService {
         resultSpecification.add(isPaid(searchFilter.getPaid()));
         resultSpecification.add(eventDateInRange(searchFilter.getRangeStart(), searchFilter.getRangeEnd()));
         resultSpecification.add(isAvailable(searchFilter.isOnlyAvailable()));
+        if (searchFilter.hasLocation()) {
+            resultSpecification.add(eventLocationWithin(searchFilter.getLat(), searchFilter.getLon(), searchFilter.getRadius()));
+        }
         return resultSpecification.stream().filter(Objects::nonNull).collect(Collectors.toList());
     }
 
+    private Specification<Event> eventLocationWithin(double lat, double lon, double radiusKm) {
+        return eventGeoIndex.findEventIdsWithin(lat, lon, radiusKm)
+                .map(EventSpecification::idIn)
+                .orElseGet(() -> EventSpecification.locationWithin(Geohash.coveringPrefixes(lat, lon, radiusKm),
+                        lat, lon, radiusKm));
+    }
+
     private List<Specification<Event>> eventAdminSearchFilterToSpecifications(EventAdminSearchFilter searchFilter) {
         List<Specification<Event>> resultSpecification = new ArrayList<>();
         resultSpecification.add(eventStatusIn(searchFilter.getStates()));
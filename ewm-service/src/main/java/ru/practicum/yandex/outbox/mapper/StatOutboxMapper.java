@@ -0,0 +1,22 @@
+package ru.practicum.yandex.outbox.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.outbox.model.StatOutboxEntry;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface StatOutboxMapper {
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "leaseOwner", ignore = true)
+    @Mapping(target = "leaseUntil", ignore = true)
+    StatOutboxEntry toEntry(EndpointHitDto endpointHitDto);
+
+    @Mapping(target = "id", ignore = true)
+    EndpointHitDto toDto(StatOutboxEntry statOutboxEntry);
+
+    List<EndpointHitDto> toDtoList(List<StatOutboxEntry> statOutboxEntries);
+}
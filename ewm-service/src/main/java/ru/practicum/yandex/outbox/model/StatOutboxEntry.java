@@ -0,0 +1,52 @@
+package ru.practicum.yandex.outbox.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Хит эндпоинта, ожидающий отправки в сервис статистики. На время отправки хит захватывается экземпляром сервиса
+ * до момента {@code leaseUntil}.
+ */
+@Entity
+@Table(name = "stat_outbox")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class StatOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stat_outbox_id_seq")
+    @SequenceGenerator(name = "stat_outbox_id_seq", sequenceName = "stat_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    private String app;
+
+    private String uri;
+
+    private String ip;
+
+    @Column(name = "hit_timestamp")
+    private LocalDateTime timestamp;
+
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,58 @@
+package ru.practicum.yandex.outbox.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.yandex.outbox.model.StatOutboxEntry;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StatOutboxRepository extends JpaRepository<StatOutboxEntry, Long> {
+
+    /**
+     * Находит и блокирует самые старые хиты, не захваченные для отправки или захват которых истек. Строки,
+     * заблокированные другим экземпляром сервиса, пропускаются (SKIP LOCKED), поэтому несколько экземпляров могут
+     * разбирать очередь одновременно.
+     *
+     * @param now      текущее время
+     * @param pageable размер пакета
+     * @return заблокированные хиты в порядке добавления
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM StatOutboxEntry o WHERE o.leaseUntil IS NULL OR o.leaseUntil < :now ORDER BY o.id")
+    List<StatOutboxEntry> findBatchForRelay(LocalDateTime now, Pageable pageable);
+
+    /**
+     * Захватывает хиты для отправки до указанного времени.
+     *
+     * @param ids        идентификаторы хитов
+     * @param leaseOwner идентификатор экземпляра сервиса, отправляющего хиты
+     * @param leaseUntil время, после которого хиты может захватить другой экземпляр
+     */
+    @Modifying
+    @Query("UPDATE StatOutboxEntry o SET o.leaseOwner = :leaseOwner, o.leaseUntil = :leaseUntil WHERE o.id IN :ids")
+    void lease(Collection<Long> ids, String leaseOwner, LocalDateTime leaseUntil);
+
+    /**
+     * Снимает захват хитов, если они все еще захвачены указанным экземпляром сервиса.
+     *
+     * @param ids        идентификаторы хитов
+     * @param leaseOwner идентификатор экземпляра сервиса
+     */
+    @Modifying
+    @Query("UPDATE StatOutboxEntry o SET o.leaseOwner = NULL, o.leaseUntil = NULL " +
+            "WHERE o.id IN :ids AND o.leaseOwner = :leaseOwner")
+    void release(Collection<Long> ids, String leaseOwner);
+
+    @Modifying
+    @Query("DELETE FROM StatOutboxEntry o WHERE o.id IN :ids")
+    void deleteByIdIn(Collection<Long> ids);
+}
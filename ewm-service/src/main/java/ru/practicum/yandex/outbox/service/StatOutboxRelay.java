@@ -0,0 +1,137 @@
+package ru.practicum.yandex.outbox.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import ru.practicum.yandex.StatClient;
+import ru.practicum.yandex.outbox.mapper.StatOutboxMapper;
+import ru.practicum.yandex.outbox.model.StatOutboxEntry;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая отправка очереди хитов в сервис статистики. За один запуск очередь разбирается пакетами, пока она
+ * не опустеет, но не больше {@code max-batches-per-run} пакетов, чтобы длинная очередь не занимала поток
+ * планировщика надолго. Если сервис статистики недоступен, следующие попытки откладываются с экспоненциально растущей
+ * паузой до {@code max-backoff-ms}; после успешной отправки пауза сбрасывается. Если сервис статистики перегружен
+ * и отвечает 429, пауза не короче указанной им в заголовке Retry-After. Размер очереди и количество
+ * неудачных попыток подряд публикуются как метрики.
+ * <p>
+ * Пакет захватывается и удаляется короткими транзакциями {@link StatOutboxService}, а отправка в сервис статистики
+ * выполняется между ними без открытой транзакции.
+ */
+@Component
+@Slf4j
+public class StatOutboxRelay {
+
+    private final StatOutboxService statOutboxService;
+
+    private final StatOutboxMapper statOutboxMapper;
+
+    private final StatClient statClient;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerRun;
+
+    private final long initialBackoffMs;
+
+    private final long maxBackoffMs;
+
+    private volatile int consecutiveFailures;
+
+    private long nextAttemptAt;
+
+    public StatOutboxRelay(StatOutboxService statOutboxService,
+                           StatOutboxMapper statOutboxMapper,
+                           StatClient statClient,
+                           @Value("${ewm.stat-outbox.batch-size:500}") int batchSize,
+                           @Value("${ewm.stat-outbox.max-batches-per-run:10}") int maxBatchesPerRun,
+                           @Value("${ewm.stat-outbox.initial-backoff-ms:1000}") long initialBackoffMs,
+                           @Value("${ewm.stat-outbox.max-backoff-ms:60000}") long maxBackoffMs,
+                           MeterRegistry meterRegistry) {
+        this.statOutboxService = statOutboxService;
+        this.statOutboxMapper = statOutboxMapper;
+        this.statClient = statClient;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        Gauge.builder("stat.outbox.backlog", statOutboxService, StatOutboxService::countPending)
+                .description("Количество хитов, ожидающих отправки в сервис статистики")
+                .register(meterRegistry);
+        Gauge.builder("stat.outbox.relay.consecutive.failures", this, relay -> relay.consecutiveFailures)
+                .description("Количество неудачных попыток отправки хитов подряд")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.stat-outbox.relay-interval-ms:500}")
+    public void relay() {
+        long now = System.currentTimeMillis();
+        if (now < nextAttemptAt) {
+            return;
+        }
+        try {
+            int relayed;
+            int batches = 0;
+            do {
+                relayed = relayBatch();
+                batches++;
+            } while (relayed == batchSize && batches < maxBatchesPerRun);
+            consecutiveFailures = 0;
+            nextAttemptAt = 0;
+        } catch (RuntimeException e) {
+            consecutiveFailures++;
+            long backoffMs = Math.max(Math.min(initialBackoffMs << Math.min(consecutiveFailures - 1, 16), maxBackoffMs),
+                    retryAfterMs(e));
+            nextAttemptAt = now + backoffMs;
+            log.warn("Не удалось отправить хиты в сервис статистики (попытка {}). Следующая попытка через {} мс. " +
+                    "Причина: {}", consecutiveFailures, backoffMs, e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<StatOutboxEntry> entries = statOutboxService.claimBatch(batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = entries.stream()
+                .map(StatOutboxEntry::getId)
+                .collect(Collectors.toList());
+        try {
+            statClient.methodHits(statOutboxMapper.toDtoList(entries));
+        } catch (RuntimeException e) {
+            releaseClaim(ids);
+            throw e;
+        }
+        statOutboxService.deleteRelayed(ids);
+        return entries.size();
+    }
+
+    private void releaseClaim(List<Long> ids) {
+        try {
+            statOutboxService.releaseClaim(ids);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось снять захват с неотправленных хитов, они будут отправлены после окончания захвата. " +
+                    "Причина: {}", e.getMessage());
+        }
+    }
+
+    private static long retryAfterMs(RuntimeException e) {
+        if (!(e instanceof WebClientResponseException.TooManyRequests)) {
+            return 0;
+        }
+        String retryAfter = ((WebClientResponseException) e).getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        try {
+            return retryAfter == null ? 0 : Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException ignored) {
+            return 0;
+        }
+    }
+}
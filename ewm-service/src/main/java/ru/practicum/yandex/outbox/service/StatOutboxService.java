@@ -0,0 +1,19 @@
+package ru.practicum.yandex.outbox.service;
+
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.outbox.model.StatOutboxEntry;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StatOutboxService {
+    void append(EndpointHitDto endpointHitDto);
+
+    List<StatOutboxEntry> claimBatch(int batchSize);
+
+    void deleteRelayed(Collection<Long> ids);
+
+    void releaseClaim(Collection<Long> ids);
+
+    long countPending();
+}
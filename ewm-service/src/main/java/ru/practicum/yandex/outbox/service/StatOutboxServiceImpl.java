@@ -0,0 +1,117 @@
+package ru.practicum.yandex.outbox.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.outbox.mapper.StatOutboxMapper;
+import ru.practicum.yandex.outbox.model.StatOutboxEntry;
+import ru.practicum.yandex.outbox.repository.StatOutboxRepository;
+import ru.practicum.yandex.shared.OffsetPageRequest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Локальная очередь хитов для сервиса статистики. Хит сохраняется в таблицу stat_outbox в базе данных сервиса,
+ * а {@link StatOutboxRelay} в фоне отправляет накопленные хиты пакетами. Хит удаляется из очереди только после
+ * успешной отправки, поэтому доставка выполняется как минимум один раз.
+ * <p>
+ * Пакет захватывается короткой транзакцией: хитам назначается экземпляр сервиса и время окончания захвата
+ * ({@code lease-ms}). Отправка выполняется вне транзакции, поэтому медленный сервис статистики не удерживает
+ * соединения с базой данных и блокировки строк. Если экземпляр не успел удалить отправленные хиты до окончания
+ * захвата, их отправит повторно любой экземпляр.
+ */
+@Service
+@Slf4j
+public class StatOutboxServiceImpl implements StatOutboxService {
+
+    private final StatOutboxRepository statOutboxRepository;
+
+    private final StatOutboxMapper statOutboxMapper;
+
+    private final long leaseMs;
+
+    private final String leaseOwner = UUID.randomUUID().toString();
+
+    public StatOutboxServiceImpl(StatOutboxRepository statOutboxRepository,
+                                 StatOutboxMapper statOutboxMapper,
+                                 @Value("${ewm.stat-outbox.lease-ms:30000}") long leaseMs) {
+        this.statOutboxRepository = statOutboxRepository;
+        this.statOutboxMapper = statOutboxMapper;
+        this.leaseMs = leaseMs;
+    }
+
+    /**
+     * Добавление хита в очередь на отправку.
+     *
+     * @param endpointHitDto данные хита
+     */
+    @Override
+    @Transactional
+    public void append(EndpointHitDto endpointHitDto) {
+        statOutboxRepository.save(statOutboxMapper.toEntry(endpointHitDto));
+    }
+
+    /**
+     * Захват пакета самых старых хитов для отправки. Захватываются хиты, которые не захвачены или захват которых
+     * истек.
+     *
+     * @param batchSize максимальный размер пакета
+     * @return захваченные хиты в порядке добавления
+     */
+    @Override
+    @Transactional
+    public List<StatOutboxEntry> claimBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StatOutboxEntry> entries = statOutboxRepository.findBatchForRelay(now, OffsetPageRequest.of(0L, batchSize));
+        if (!entries.isEmpty()) {
+            statOutboxRepository.lease(ids(entries), leaseOwner, now.plus(leaseMs, ChronoUnit.MILLIS));
+        }
+        return entries;
+    }
+
+    /**
+     * Удаление отправленных хитов из очереди.
+     *
+     * @param ids идентификаторы отправленных хитов
+     */
+    @Override
+    @Transactional
+    public void deleteRelayed(Collection<Long> ids) {
+        statOutboxRepository.deleteByIdIn(ids);
+        log.info("В сервис статистики отправлено хитов: '{}'.", ids.size());
+    }
+
+    /**
+     * Снятие захвата с хитов, которые не удалось отправить, чтобы следующая попытка не ждала окончания захвата.
+     *
+     * @param ids идентификаторы хитов
+     */
+    @Override
+    @Transactional
+    public void releaseClaim(Collection<Long> ids) {
+        statOutboxRepository.release(ids, leaseOwner);
+    }
+
+    /**
+     * Количество хитов, ожидающих отправки в сервис статистики.
+     *
+     * @return размер очереди
+     */
+    @Override
+    public long countPending() {
+        return statOutboxRepository.count();
+    }
+
+    private static List<Long> ids(List<StatOutboxEntry> entries) {
+        return entries.stream()
+                .map(StatOutboxEntry::getId)
+                .collect(Collectors.toList());
+    }
+}
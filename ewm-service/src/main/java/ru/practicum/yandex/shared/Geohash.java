@@ -0,0 +1,137 @@
+package ru.practicum.yandex.shared;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Кодирование координат в geohash и вычисление префиксов ячеек, покрывающих окружность заданного радиуса.
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 9;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private Geohash() {
+    }
+
+    /**
+     * Кодирование координат в geohash указанной длины.
+     *
+     * @param lat       широта
+     * @param lon       долгота
+     * @param precision количество символов geohash
+     * @return geohash
+     */
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90;
+        double maxLat = 90;
+        double minLon = -180;
+        double maxLon = 180;
+        StringBuilder geohash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+        while (geohash.length() < precision) {
+            if (evenBit) {
+                double middle = (minLon + maxLon) / 2;
+                if (lon >= middle) {
+                    index = index * 2 + 1;
+                    minLon = middle;
+                } else {
+                    index = index * 2;
+                    maxLon = middle;
+                }
+            } else {
+                double middle = (minLat + maxLat) / 2;
+                if (lat >= middle) {
+                    index = index * 2 + 1;
+                    minLat = middle;
+                } else {
+                    index = index * 2;
+                    maxLat = middle;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                geohash.append(BASE32.charAt(index));
+                bit = 0;
+                index = 0;
+            }
+        }
+        return geohash.toString();
+    }
+
+    /**
+     * Префиксы geohash, ячейки которых покрывают окружность с центром в указанной точке: ячейка центра и восемь
+     * соседних ячеек такой длины, при которой ячейка не меньше радиуса. Пустой префикс означает, что окружность
+     * покрывает весь земной шар.
+     *
+     * @param lat      широта центра
+     * @param lon      долгота центра
+     * @param radiusKm радиус в километрах
+     * @return префиксы geohash
+     */
+    public static Set<String> coveringPrefixes(double lat, double lon, double radiusKm) {
+        int precision = MAX_PRECISION;
+        while (precision > 0 && cellSizeKm(lat, precision) < radiusKm) {
+            precision--;
+        }
+        if (precision == 0) {
+            return Set.of("");
+        }
+        double cellHeight = 180 / Math.pow(2, latBits(precision));
+        double cellWidth = 360 / Math.pow(2, lonBits(precision));
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (int latStep = -1; latStep <= 1; latStep++) {
+            for (int lonStep = -1; lonStep <= 1; lonStep++) {
+                double neighbourLat = Math.max(-90, Math.min(90, lat + latStep * cellHeight));
+                double neighbourLon = normalizeLongitude(lon + lonStep * cellWidth);
+                prefixes.add(encode(neighbourLat, neighbourLon, precision));
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Расстояние между точками по формуле гаверсинусов.
+     *
+     * @return расстояние в километрах
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static double cellSizeKm(double lat, int precision) {
+        double heightKm = 180 / Math.pow(2, latBits(precision)) * KM_PER_DEGREE;
+        double widthKm = 360 / Math.pow(2, lonBits(precision)) * KM_PER_DEGREE * Math.cos(Math.toRadians(lat));
+        return Math.min(heightKm, widthKm);
+    }
+
+    private static int latBits(int precision) {
+        return precision * 5 / 2;
+    }
+
+    private static int lonBits(int precision) {
+        return (precision * 5 + 1) / 2;
+    }
+
+    private static double normalizeLongitude(double lon) {
+        if (lon < -180) {
+            return lon + 360;
+        }
+        if (lon >= 180) {
+            return lon - 360;
+        }
+        return lon;
+    }
+}
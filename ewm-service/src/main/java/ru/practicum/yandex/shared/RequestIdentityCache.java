@@ -0,0 +1,160 @@
+package ru.practicum.yandex.shared;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов проверок существования и проекций сущностей в пределах одного HTTP-запроса. Значения хранятся
+ * в атрибутах текущего запроса и удаляются вместе с ним. Вне HTTP-запроса (например, в задачах по расписанию)
+ * значения хранятся до завершения текущей транзакции, а без транзакции каждый раз загружаются заново. Сервисы,
+ * изменяющие сущность, удаляют ее значения методом {@link #evict(Class, Long)}, чтобы последующие чтения в том же
+ * запросе не получили значение, загруженное до изменения.
+ */
+@Component
+public class RequestIdentityCache {
+
+    private static final String ATTRIBUTE_NAME = RequestIdentityCache.class.getName();
+
+    private static final Object TRANSACTION_RESOURCE = new Object();
+
+    /**
+     * Получение сущности или ее проекции из кэша текущего запроса или загрузка при отсутствии.
+     *
+     * @param type   тип сущности или проекции
+     * @param id     идентификатор сущности
+     * @param loader загрузчик значения, выбрасывающий исключение, если сущность не найдена
+     * @param <T>    тип значения
+     * @return значение из кэша или загруженное значение
+     */
+    public <T> T get(Class<T> type, Long id, Supplier<T> loader) {
+        Map<Key, Object> cache = getCache();
+        if (cache == null) {
+            return loader.get();
+        }
+        Key key = new Key(type, id);
+        T value = type.cast(cache.get(key));
+        if (value == null) {
+            value = loader.get();
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Проверка существования сущности с кэшированием результата в пределах текущего запроса. Сущность, уже
+     * загруженная через {@link #get(Class, Long, Supplier)}, считается существующей без обращения к базе данных.
+     *
+     * @param type   тип сущности
+     * @param id     идентификатор сущности
+     * @param loader проверка существования сущности
+     * @return true, если сущность существует
+     */
+    public boolean exists(Class<?> type, Long id, BooleanSupplier loader) {
+        Map<Key, Object> cache = getCache();
+        if (cache == null) {
+            return loader.getAsBoolean();
+        }
+        if (cache.containsKey(new Key(type, id))) {
+            return true;
+        }
+        return (Boolean) cache.computeIfAbsent(new Key(Boolean.class, type, id), key -> loader.getAsBoolean());
+    }
+
+    /**
+     * Удаление из кэша значения и результата проверки существования сущности. Вызывается после изменения или
+     * удаления сущности.
+     *
+     * @param type тип сущности или проекции
+     * @param id   идентификатор сущности
+     */
+    public void evict(Class<?> type, Long id) {
+        Map<Key, Object> cache = getCache();
+        if (cache == null) {
+            return;
+        }
+        cache.remove(new Key(type, id));
+        cache.remove(new Key(Boolean.class, type, id));
+    }
+
+    private Map<Key, Object> getCache() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            return getRequestCache(attributes);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            return getTransactionCache();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Key, Object> getRequestCache(RequestAttributes attributes) {
+        Map<Key, Object> cache = (Map<Key, Object>) attributes.getAttribute(ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+        if (cache == null) {
+            cache = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE_NAME, cache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return cache;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Key, Object> getTransactionCache() {
+        Map<Key, Object> cache = (Map<Key, Object>) TransactionSynchronizationManager.getResource(TRANSACTION_RESOURCE);
+        if (cache == null) {
+            cache = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(TRANSACTION_RESOURCE, cache);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_RESOURCE);
+                }
+            });
+        }
+        return cache;
+    }
+
+    private static final class Key {
+
+        private final Class<?> type;
+
+        private final Class<?> entityType;
+
+        private final Long id;
+
+        private Key(Class<?> type, Long id) {
+            this(type, type, id);
+        }
+
+        private Key(Class<?> type, Class<?> entityType, Long id) {
+            this.type = type;
+            this.entityType = entityType;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return type.equals(key.type) && entityType.equals(key.entityType) && Objects.equals(id, key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, entityType, id);
+        }
+    }
+}
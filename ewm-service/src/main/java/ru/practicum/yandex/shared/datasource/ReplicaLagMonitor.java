@@ -0,0 +1,18 @@
+package ru.practicum.yandex.shared.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Периодическая проверка отставания реплик. До первой проверки все чтение выполняется из основной базы данных.
+ */
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${ewm.datasource.routing.check-interval-ms:5000}")
+    public void checkReplicas() {
+        replicaRoutingDataSource.checkReplicas();
+    }
+}
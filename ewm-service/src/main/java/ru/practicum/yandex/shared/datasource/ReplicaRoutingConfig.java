@@ -0,0 +1,112 @@
+package ru.practicum.yandex.shared.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import com.zaxxer.hikari.util.IsolationLevel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Конфигурация маршрутизации транзакций только для чтения на реплики. Включается свойством
+ * ewm.datasource.routing.enabled; основной источник данных настраивается обычными свойствами spring.datasource.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ewm.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+    /**
+     * Источник данных с маршрутизацией на основную базу и реплики. Пулы соединений не являются отдельными бинами
+     * и не видны автоконфигурации метрик, поэтому метрики пулов (hikaricp.connections.*, тег pool) подключаются здесь.
+     * Реестр метрик запрашивается при запуске пула, а не при создании бина: реестр сам привязывает метрики всех
+     * источников данных, и его создание здесь образует цикл зависимостей.
+     * Основной пул настраивается свойствами spring.datasource.hikari. Пулы реплик получают те же настройки,
+     * которые можно переопределить свойствами ewm.datasource.routing.replicas[n].hikari.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties routingProperties,
+                                                             Environment environment,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricsTrackerFactory((poolName, poolStats) -> new MicrometerMetricsTrackerFactory(
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry)).create(poolName, poolStats));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaRoutingProperties.Replica> replicaProperties = routingProperties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            ReplicaRoutingProperties.Replica replicaProperty = replicaProperties.get(i);
+            HikariDataSource replica = new HikariDataSource();
+            // Копируются и настройки пула, и фабрика метрик основного пула.
+            primary.copyStateTo(replica);
+            replica.setJdbcUrl(replicaProperty.getUrl());
+            replica.setUsername(replicaProperty.getUsername());
+            replica.setPassword(replicaProperty.getPassword());
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            binder.bind("ewm.datasource.routing.replicas[" + i + "].hikari", Bindable.ofInstance(replica));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, routingProperties.getMaxLagMs(),
+                routingProperties.getLagQuery());
+    }
+
+    /**
+     * Основной источник данных приложения. Физическое соединение выбирается при первом запросе транзакции,
+     * когда признак транзакции только для чтения уже установлен. Значения автофиксации и уровня изоляции
+     * соединений по умолчанию задаются из настроек пула: иначе прокси получает соединение при создании бина, и запуск
+     * пула запрашивает реестр метрик до окончания создания источников данных.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                 @Value("${spring.datasource.hikari.auto-commit:true}") boolean autoCommit,
+                                 @Value("${spring.datasource.hikari.transaction-isolation:TRANSACTION_READ_COMMITTED}")
+                                 String transactionIsolation) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(replicaRoutingDataSource);
+        dataSource.setDefaultAutoCommit(autoCommit);
+        dataSource.setDefaultTransactionIsolation(IsolationLevel.valueOf(transactionIsolation).getLevelId());
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    /**
+     * Соединение возвращается в пул после каждой транзакции: при удержании соединения до конца HTTP-запроса
+     * (open-in-view) все транзакции запроса выполнялись бы в источнике данных, выбранном для первой из них.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource);
+    }
+}
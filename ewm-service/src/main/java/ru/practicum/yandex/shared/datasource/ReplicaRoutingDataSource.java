@@ -0,0 +1,136 @@
+package ru.practicum.yandex.shared.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.yandex.EwmServiceApp;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Источник данных, направляющий транзакции только для чтения, начатые методами сервисов приложения, на реплики, а все
+ * остальные запросы - в основную базу данных. Транзакции только для чтения, которые Spring Data открывает по умолчанию
+ * для методов репозиториев, остаются в основной базе данных: иначе чтение внутри изменяющих сценариев могло бы
+ * не увидеть только что записанные данные из-за отставания реплики. Реплика участвует в маршрутизации, только если последняя проверка отставания прошла успешно; при отсутствии
+ * доступных реплик чтение выполняется из основной базы данных.
+ * <p>
+ * Признак транзакции только для чтения становится известен после получения соединения в начале транзакции, поэтому
+ * источник данных должен использоваться через {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * который получает физическое соединение при выполнении первого запроса.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final String APPLICATION_PACKAGE = EwmServiceApp.class.getPackageName() + ".";
+
+    private final List<ReplicaNode> replicas;
+
+    private final long maxLagMs;
+
+    private final String lagQuery;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMs, String lagQuery) {
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new ReplicaNode(replica.getKey(), replica.getValue()))
+                .collect(Collectors.toList());
+        this.maxLagMs = maxLagMs;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!isReadOnlyApplicationTransaction()) {
+            return PRIMARY;
+        }
+        List<ReplicaNode> available = replicas.stream()
+                .filter(ReplicaNode::isAvailable)
+                .collect(Collectors.toList());
+        if (available.isEmpty()) {
+            return PRIMARY;
+        }
+        return available.get(Math.floorMod(nextReplica.getAndIncrement(), available.size())).getName();
+    }
+
+    private static boolean isReadOnlyApplicationTransaction() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        return transactionName != null && transactionName.startsWith(APPLICATION_PACKAGE);
+    }
+
+    /**
+     * Проверка отставания реплик. Реплика, недоступная или отстающая больше допустимого, исключается
+     * из маршрутизации до следующей проверки.
+     */
+    public void checkReplicas() {
+        for (ReplicaNode replica : replicas) {
+            boolean available;
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                long lagMs = resultSet.next() ? resultSet.getLong(1) : Long.MAX_VALUE;
+                available = lagMs <= maxLagMs;
+                if (!available && replica.isAvailable()) {
+                    log.warn("Реплика '{}' отстает на {} мс и исключена из маршрутизации.", replica.getName(), lagMs);
+                }
+            } catch (SQLException e) {
+                available = false;
+                if (replica.isAvailable()) {
+                    log.warn("Реплика '{}' недоступна и исключена из маршрутизации.", replica.getName(), e);
+                }
+            }
+            if (available && !replica.isAvailable()) {
+                log.info("Реплика '{}' включена в маршрутизацию.", replica.getName());
+            }
+            replica.setAvailable(available);
+        }
+    }
+
+    private static class ReplicaNode {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean available;
+
+        ReplicaNode(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        DataSource getDataSource() {
+            return dataSource;
+        }
+
+        boolean isAvailable() {
+            return available;
+        }
+
+        void setAvailable(boolean available) {
+            this.available = available;
+        }
+    }
+}
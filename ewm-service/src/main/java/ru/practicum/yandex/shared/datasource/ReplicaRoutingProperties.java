@@ -0,0 +1,51 @@
+package ru.practicum.yandex.shared.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки маршрутизации транзакций только для чтения на реплики базы данных.
+ */
+@ConfigurationProperties(prefix = "ewm.datasource.routing")
+@Getter
+@Setter
+public class ReplicaRoutingProperties {
+
+    /**
+     * Включение маршрутизации. Без нее все запросы идут в основной источник данных spring.datasource.
+     */
+    private boolean enabled;
+
+    /**
+     * Максимально допустимое отставание реплики в миллисекундах. Реплика с большим отставанием исключается
+     * из маршрутизации до следующей успешной проверки.
+     */
+    private long maxLagMs = 5000;
+
+    /**
+     * Запрос, возвращающий отставание реплики в миллисекундах.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Подключение к реплике. Пул соединений реплики получает настройки основного пула spring.datasource.hikari;
+     * отдельные настройки переопределяются свойствами hikari реплики, например replicas[0].hikari.maximum-pool-size.
+     */
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.yandex.shared.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Проверяет, вызвано ли нарушение целостности данных указанным ограничением базы данных.
+     *
+     * @param e              исключение нарушения целостности
+     * @param constraintName имя ограничения из schema.sql
+     * @return true, если нарушено указанное ограничение
+     */
+    public static boolean isViolated(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String violated = ((ConstraintViolationException) cause).getConstraintName();
+                if (violated != null && violated.toLowerCase().contains(constraintName)) {
+                    return true;
+                }
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains(constraintName);
+    }
+}
@@ -19,6 +19,7 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 @RestControllerAdvice
 @Slf4j
@@ -92,6 +93,42 @@ public class EwmServiceExceptionHandler {
                 .build();
     }
 
+    @ExceptionHandler
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorResponse handleIncorrectSearchFilterException(IncorrectSearchFilterException e) {
+        log.error(e.getLocalizedMessage());
+        return ErrorResponse.builder()
+                .errors(getStackTraceAsString(e))
+                .message(e.getLocalizedMessage())
+                .reason("Incorrect search filter.")
+                .status(BAD_REQUEST)
+                .build();
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorResponse handleIncorrectCursorException(IncorrectCursorException e) {
+        log.error(e.getLocalizedMessage());
+        return ErrorResponse.builder()
+                .errors(getStackTraceAsString(e))
+                .message(e.getLocalizedMessage())
+                .reason("Incorrect cursor.")
+                .status(BAD_REQUEST)
+                .build();
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(TOO_MANY_REQUESTS)
+    public ErrorResponse handleTooManyRequestsException(TooManyRequestsException e) {
+        log.warn(e.getLocalizedMessage());
+        return ErrorResponse.builder()
+                .errors(getStackTraceAsString(e))
+                .message(e.getLocalizedMessage())
+                .reason("Too many requests.")
+                .status(TOO_MANY_REQUESTS)
+                .build();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleConversionFailedException(MethodArgumentTypeMismatchException e) {
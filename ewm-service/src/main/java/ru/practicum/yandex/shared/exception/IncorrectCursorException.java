@@ -0,0 +1,7 @@
+package ru.practicum.yandex.shared.exception;
+
+public class IncorrectCursorException extends RuntimeException {
+    public IncorrectCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.yandex.shared.exception;
+
+public class IncorrectSearchFilterException extends RuntimeException {
+    public IncorrectSearchFilterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.yandex.shared.exception;
+
+public class ParticipantLimitExceededException extends NotAuthorizedException {
+    public ParticipantLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.yandex.shared.exception;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
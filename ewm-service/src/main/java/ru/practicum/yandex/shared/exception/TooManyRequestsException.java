@@ -0,0 +1,7 @@
+package ru.practicum.yandex.shared.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.yandex.shared.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация метрик сервиса. Публичные методы классов, отмеченных {@link io.micrometer.core.annotation.Timed},
+ * измеряются таймером с тегами class, method и exception: таймер дает и время выполнения, и количество вызовов,
+ * а тег exception отделяет вызовы, завершившиеся ошибкой. Вызовы внутри класса прокси не проходят и не измеряются.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Имя таймера методов сервисного слоя.
+     */
+    public static final String SERVICE_METHOD_TIMER = "ewm.service.method";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
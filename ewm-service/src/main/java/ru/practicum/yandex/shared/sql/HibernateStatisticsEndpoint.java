@@ -0,0 +1,89 @@
+package ru.practicum.yandex.shared.sql;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Эндпоинт actuator со статистикой Hibernate: количество запросов и подготовленных выражений, загрузки сущностей
+ * и коллекций, попадания в кэш второго уровня и кэш запросов, а также запросы с наибольшим суммарным временем
+ * выполнения. Статистика собирается при hibernate.generate_statistics=true; DELETE сбрасывает накопленные значения,
+ * например перед нагрузочным тестом.
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private static final int TOP_QUERIES = 10;
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public HibernateStatisticsReport statistics() {
+        return HibernateStatisticsReport.builder()
+                .enabled(statistics.isStatisticsEnabled())
+                .collectedSince(Instant.ofEpochMilli(statistics.getStartTime()))
+                .sessionOpenCount(statistics.getSessionOpenCount())
+                .transactionCount(statistics.getTransactionCount())
+                .flushCount(statistics.getFlushCount())
+                .prepareStatementCount(statistics.getPrepareStatementCount())
+                .queryExecutionCount(statistics.getQueryExecutionCount())
+                .queryExecutionMaxTimeMs(statistics.getQueryExecutionMaxTime())
+                .slowestQuery(statistics.getQueryExecutionMaxTimeQueryString())
+                .entityLoadCount(statistics.getEntityLoadCount())
+                .entityFetchCount(statistics.getEntityFetchCount())
+                .entityInsertCount(statistics.getEntityInsertCount())
+                .entityUpdateCount(statistics.getEntityUpdateCount())
+                .entityDeleteCount(statistics.getEntityDeleteCount())
+                .collectionLoadCount(statistics.getCollectionLoadCount())
+                .collectionFetchCount(statistics.getCollectionFetchCount())
+                .secondLevelCacheHitCount(statistics.getSecondLevelCacheHitCount())
+                .secondLevelCacheMissCount(statistics.getSecondLevelCacheMissCount())
+                .secondLevelCachePutCount(statistics.getSecondLevelCachePutCount())
+                .queryCacheHitCount(statistics.getQueryCacheHitCount())
+                .queryCacheMissCount(statistics.getQueryCacheMissCount())
+                .optimisticFailureCount(statistics.getOptimisticFailureCount())
+                .topQueriesByTotalTime(topQueries())
+                .build();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.clear();
+    }
+
+    private List<HibernateStatisticsReport.QueryReport> topQueries() {
+        return Arrays.stream(statistics.getQueries())
+                .map(query -> toReport(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong(HibernateStatisticsReport.QueryReport::getExecutionTotalTimeMs).reversed())
+                .limit(TOP_QUERIES)
+                .collect(Collectors.toList());
+    }
+
+    private static HibernateStatisticsReport.QueryReport toReport(String query, QueryStatistics queryStatistics) {
+        return HibernateStatisticsReport.QueryReport.builder()
+                .query(query)
+                .executionCount(queryStatistics.getExecutionCount())
+                .executionTotalTimeMs(queryStatistics.getExecutionTotalTime())
+                .executionAvgTimeMs(queryStatistics.getExecutionAvgTime())
+                .executionMaxTimeMs(queryStatistics.getExecutionMaxTime())
+                .executionRowCount(queryStatistics.getExecutionRowCount())
+                .cacheHitCount(queryStatistics.getCacheHitCount())
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.yandex.shared.sql;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Снимок статистики Hibernate для эндпоинта actuator hibernate.
+ */
+@Value
+@Builder
+public class HibernateStatisticsReport {
+
+    boolean enabled;
+
+    Instant collectedSince;
+
+    long sessionOpenCount;
+
+    long transactionCount;
+
+    long flushCount;
+
+    long prepareStatementCount;
+
+    long queryExecutionCount;
+
+    long queryExecutionMaxTimeMs;
+
+    String slowestQuery;
+
+    long entityLoadCount;
+
+    long entityFetchCount;
+
+    long entityInsertCount;
+
+    long entityUpdateCount;
+
+    long entityDeleteCount;
+
+    long collectionLoadCount;
+
+    long collectionFetchCount;
+
+    long secondLevelCacheHitCount;
+
+    long secondLevelCacheMissCount;
+
+    long secondLevelCachePutCount;
+
+    long queryCacheHitCount;
+
+    long queryCacheMissCount;
+
+    long optimisticFailureCount;
+
+    List<QueryReport> topQueriesByTotalTime;
+
+    /**
+     * Статистика одного запроса HQL или SQL.
+     */
+    @Value
+    @Builder
+    public static class QueryReport {
+
+        String query;
+
+        long executionCount;
+
+        long executionTotalTimeMs;
+
+        long executionAvgTimeMs;
+
+        long executionMaxTimeMs;
+
+        long executionRowCount;
+
+        long cacheHitCount;
+    }
+}
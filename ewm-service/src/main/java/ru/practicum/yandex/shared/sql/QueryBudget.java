@@ -0,0 +1,24 @@
+package ru.practicum.yandex.shared.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Максимальное количество SQL-запросов, которое может выполнить обработка одного HTTP-запроса эндпоинтом. Бюджет
+ * не должен зависеть от размера ответа: рост количества запросов вместе с размером страницы означает проблему N+1.
+ * При превышении бюджета в журнал пишется предупреждение, а в строгом режиме (ewm.sql-guard.strict) запрос
+ * завершается ошибкой {@link ru.practicum.yandex.shared.exception.QueryBudgetExceededException}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /**
+     * @return максимальное количество SQL-запросов на один HTTP-запрос
+     */
+    int value();
+}
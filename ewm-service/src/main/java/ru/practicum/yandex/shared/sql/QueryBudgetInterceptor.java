@@ -0,0 +1,73 @@
+package ru.practicum.yandex.shared.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Подсчет SQL-запросов, выполненных при обработке HTTP-запроса методом контроллера. Количество публикуется
+ * гистограммой sql.statements.per.request с тегом handler (класс и метод контроллера); превышения бюджета,
+ * объявленного {@link QueryBudget}, считаются метрикой sql.query.budget.exceeded.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".scope";
+
+    private static final String HANDLER_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".handler";
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean strict;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        QueryBudget queryBudget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+        int budget = queryBudget == null ? -1 : queryBudget.value();
+        request.setAttribute(HANDLER_ATTRIBUTE, name);
+        request.setAttribute(SCOPE_ATTRIBUTE, SqlStatementCounter.open(name, budget, strict));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementCounter.Scope scope = (SqlStatementCounter.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+        String name = (String) request.getAttribute(HANDLER_ATTRIBUTE);
+        DistributionSummary.builder("sql.statements.per.request")
+                .description("Количество SQL-запросов на один HTTP-запрос")
+                .tag("handler", name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry)
+                .record(scope.getCount());
+        log.debug("Обработка запроса '{} {}' методом '{}' выполнила SQL-запросов: {}.", request.getMethod(),
+                request.getRequestURI(), name, scope.getCount());
+        if (scope.isExceeded()) {
+            Counter.builder("sql.query.budget.exceeded")
+                    .description("Количество HTTP-запросов, превысивших бюджет SQL-запросов")
+                    .tag("handler", name)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Обработка запроса '{} {}' методом '{}' выполнила {} SQL-запросов при бюджете {}.",
+                    request.getMethod(), request.getRequestURI(), name, scope.getCount(), scope.getBudget());
+        }
+    }
+}
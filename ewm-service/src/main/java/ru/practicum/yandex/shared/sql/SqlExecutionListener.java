@@ -0,0 +1,149 @@
+package ru.practicum.yandex.shared.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Наблюдение за выполнением SQL-запросов на уровне JDBC. Время выполнения каждого запроса измеряется таймером
+ * jdbc.statements с тегами type (select, insert, update, delete, other) и success. Запросы дольше порога
+ * записываются в журнал с предупреждением, а каждый N-й запрос записывается в журнал как выборка. Вместо значений
+ * параметров в журнал попадают только их типы, поэтому данные пользователей в журнале не оказываются.
+ */
+@Slf4j
+public class SqlExecutionListener implements QueryExecutionListener {
+
+    private static final String STATEMENTS_TIMER = "jdbc.statements";
+
+    private final long slowThresholdMs;
+
+    private final long sampleEvery;
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private final AtomicLong executions = new AtomicLong();
+
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * @param slowThresholdMs       порог времени выполнения, начиная с которого запрос считается медленным
+     * @param sampleEvery           в журнал записывается один запрос из sampleEvery; 0 отключает выборку
+     * @param meterRegistryProvider реестр метрик; запрашивается при первом запросе, так как источник данных создается
+     *                              раньше реестра
+     */
+    public SqlExecutionListener(long slowThresholdMs, long sampleEvery, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.slowThresholdMs = slowThresholdMs;
+        this.sampleEvery = sampleEvery;
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMs = execInfo.getElapsedTime();
+        String type = statementType(queryInfoList);
+        MeterRegistry registry = meterRegistry();
+        if (registry != null) {
+            Timer.builder(STATEMENTS_TIMER)
+                    .description("Выполнение SQL-запросов")
+                    .tag("type", type)
+                    .tag("success", String.valueOf(execInfo.isSuccess()))
+                    .register(registry)
+                    .record(elapsedMs, TimeUnit.MILLISECONDS);
+        }
+        if (elapsedMs >= slowThresholdMs) {
+            log.warn("Медленный SQL-запрос: {} мс. {}", elapsedMs, describe(execInfo, queryInfoList));
+        } else if (sampleEvery > 0 && executions.incrementAndGet() % sampleEvery == 0) {
+            log.info("Выборка SQL-запросов (1 из {}): {} мс. {}", sampleEvery, elapsedMs,
+                    describe(execInfo, queryInfoList));
+        }
+    }
+
+    private MeterRegistry meterRegistry() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            registry = meterRegistryProvider.getIfAvailable();
+            meterRegistry = registry;
+        }
+        return registry;
+    }
+
+    private static String statementType(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return "other";
+        }
+        String query = queryInfoList.get(0).getQuery().stripLeading();
+        int end = 0;
+        while (end < query.length() && Character.isLetter(query.charAt(end))) {
+            end++;
+        }
+        String keyword = query.substring(0, end).toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "select":
+            case "insert":
+            case "update":
+            case "delete":
+                return keyword;
+            default:
+                return "other";
+        }
+    }
+
+    private static String describe(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        StringBuilder description = new StringBuilder();
+        if (execInfo.isBatch()) {
+            description.append("Пакет из ").append(execInfo.getBatchSize()).append(". ");
+        }
+        if (!execInfo.isSuccess()) {
+            description.append("Завершился ошибкой. ");
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            description.append("Запрос: '").append(queryInfo.getQuery()).append("'");
+            List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+            if (!parametersList.isEmpty()) {
+                description.append(", параметры: ").append(parameterShape(parametersList.get(0)));
+            }
+            description.append(". ");
+        }
+        return description.toString().trim();
+    }
+
+    /**
+     * Форма параметров запроса: типы значений в порядке параметров, для параметров со значением NULL - null.
+     */
+    private static String parameterShape(List<ParameterSetOperation> parameters) {
+        return parameters.stream()
+                .filter(parameter -> !ParameterSetOperation.isRegisterOutParameterOperation(parameter))
+                .sorted(Comparator.comparingInt(SqlExecutionListener::parameterIndex))
+                .map(SqlExecutionListener::parameterType)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static int parameterIndex(ParameterSetOperation parameter) {
+        Object index = parameter.getArgs()[0];
+        return index instanceof Integer ? (Integer) index : Integer.MAX_VALUE;
+    }
+
+    private static String parameterType(ParameterSetOperation parameter) {
+        Object[] args = parameter.getArgs();
+        if (ParameterSetOperation.isSetNullParameterOperation(parameter) || args.length < 2 || args[1] == null) {
+            return "null";
+        }
+        return args[1].getClass().getSimpleName();
+    }
+}
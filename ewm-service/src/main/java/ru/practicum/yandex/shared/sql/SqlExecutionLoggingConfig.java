@@ -0,0 +1,51 @@
+package ru.practicum.yandex.shared.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Наблюдение за SQL-запросами на уровне JDBC вместо вывода каждого запроса в консоль (show-sql). Основной источник
+ * данных приложения оборачивается прокси, который передает сведения о выполненных запросах в
+ * {@link SqlExecutionListener}. Включено по умолчанию, отключается свойством ewm.sql-log.enabled.
+ */
+@Configuration
+@ConditionalOnProperty(value = "ewm.sql-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlExecutionLoggingConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    /**
+     * Оборачивает бин dataSource. При маршрутизации на реплики это внешний источник данных, поэтому каждый запрос
+     * проходит через прокси один раз независимо от того, на какой пул он направлен.
+     *
+     * @param slowThresholdMs порог времени выполнения медленного запроса
+     * @param sampleEvery     в журнал записывается один запрос из sampleEvery; 0 отключает выборку
+     * @param meterRegistry   реестр метрик
+     * @return обработчик бинов, оборачивающий источник данных
+     */
+    @Bean
+    public static BeanPostProcessor sqlExecutionLoggingPostProcessor(@Value("${ewm.sql-log.slow-threshold-ms:200}") long slowThresholdMs,
+                                                                     @Value("${ewm.sql-log.sample-every:1000}") long sampleEvery,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        SqlExecutionListener listener = new SqlExecutionListener(slowThresholdMs, sampleEvery, meterRegistry);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && DATA_SOURCE_BEAN.equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                            .listener(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.yandex.shared.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import ru.practicum.yandex.shared.exception.QueryBudgetExceededException;
+
+/**
+ * Счетчик SQL-запросов, подготовленных Hibernate в текущем потоке. Счет ведется только внутри области, открытой
+ * методом {@link #open(String, int, boolean)}; запросы вне области (фоновые задачи, запуск приложения) не
+ * учитываются.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Открытие области подсчета в текущем потоке.
+     *
+     * @param name   имя области для сообщений об ошибках
+     * @param budget максимальное количество запросов или -1, если бюджет не задан
+     * @param strict прерывать запрос, превышающий бюджет, исключением
+     * @return область подсчета, которую нужно закрыть в том же потоке
+     */
+    public static Scope open(String name, int budget, boolean strict) {
+        Scope scope = new Scope(name, budget, strict);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.onStatement(sql);
+        }
+        return sql;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final String name;
+
+        private final int budget;
+
+        private final boolean strict;
+
+        private int count;
+
+        private Scope(String name, int budget, boolean strict) {
+            this.name = name;
+            this.budget = budget;
+            this.strict = strict;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getBudget() {
+            return budget;
+        }
+
+        public boolean isExceeded() {
+            return budget >= 0 && count > budget;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+        }
+
+        private void onStatement(String sql) {
+            count++;
+            if (strict && isExceeded()) {
+                throw new QueryBudgetExceededException("Превышен бюджет SQL-запросов '" + budget + "' для '" + name +
+                        "'. Запрос №" + count + ": " + sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.yandex.shared.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Подсчет SQL-запросов на HTTP-запрос и контроль бюджетов {@link QueryBudget}. Включен по умолчанию, отключается
+ * свойством ewm.sql-guard.enabled; строгий режим (ewm.sql-guard.strict) включен в профиле test.
+ */
+@Configuration
+@ConditionalOnProperty(value = "ewm.sql-guard.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementGuardConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean strict;
+
+    public SqlStatementGuardConfig(MeterRegistry meterRegistry,
+                                   @Value("${ewm.sql-guard.strict:false}") boolean strict) {
+        this.meterRegistry = meterRegistry;
+        this.strict = strict;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryBudgetInterceptor(meterRegistry, strict));
+    }
+}
@@ -18,6 +18,7 @@ import ru.practicum.yandex.events.dto.EventShortDto;
 import ru.practicum.yandex.events.dto.EventUpdateRequest;
 import ru.practicum.yandex.events.mapper.EventMapper;
 import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.shared.sql.QueryBudget;
 import ru.practicum.yandex.user.dto.EventRequestStatusUpdateDto;
 import ru.practicum.yandex.user.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.yandex.user.dto.NewEventDto;
@@ -25,6 +26,7 @@ import ru.practicum.yandex.user.dto.ParticipationRequestDto;
 import ru.practicum.yandex.user.mapper.ParticipationMapper;
 import ru.practicum.yandex.user.model.NewEvent;
 import ru.practicum.yandex.user.model.ParticipationRequest;
+import ru.practicum.yandex.user.service.ParticipationAdmissionService;
 import ru.practicum.yandex.user.service.UserService;
 
 import javax.validation.Valid;
@@ -44,6 +46,8 @@ public class UserPrivateController {
 
     private final UserService userService;
 
+    private final ParticipationAdmissionService participationAdmissionService;
+
     private final EventMapper eventMapper;
 
     private final ParticipationMapper participationMapper;
@@ -74,6 +78,7 @@ public class UserPrivateController {
      * @return список событий
      */
     @GetMapping("/{userId}/events")
+    @QueryBudget(5)
     public List<EventShortDto> findEventsFromUser(@PathVariable Long userId,
                                                   @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
                                                   @RequestParam(defaultValue = "10") @Positive Integer size) {
@@ -90,6 +95,7 @@ public class UserPrivateController {
      * @return найденное событие
      */
     @GetMapping("/{userId}/events/{eventId}")
+    @QueryBudget(5)
     public EventFullDto getFullEventByInitiator(@PathVariable Long userId, @PathVariable Long eventId) {
         log.info("Запрос полной информации о событии с id '{}' пользователем с id '{}'.", eventId, userId);
         final Event event = userService.getFullEventByInitiator(userId, eventId);
@@ -122,6 +128,7 @@ public class UserPrivateController {
      * @return запросы на участие в событии
      */
     @GetMapping("/{userId}/events/{eventId}/requests")
+    @QueryBudget(4)
     public List<ParticipationRequestDto> findParticipationRequestsForUsersEvent(@PathVariable Long userId,
                                                                                 @PathVariable Long eventId) {
         log.info("Получение запросов на участие в событии с id '{}', инициированном пользователем с id '{}'.",
@@ -141,6 +148,7 @@ public class UserPrivateController {
      * @return результат изменения статуса запроса на участие
      */
     @PatchMapping("/{userId}/events/{eventId}/requests")
+    @QueryBudget(6)
     public EventRequestStatusUpdateDto changeParticipationRequestStatusForUsersEvent(
             @PathVariable Long userId,
             @PathVariable Long eventId,
@@ -151,6 +159,7 @@ public class UserPrivateController {
 
     /**
      * Добавить запрос на участие в событии. Если запрос на участие сохранен успешно, возвращает статус 201.
+     * Если очередь запросов к популярному событию переполнена, возвращает статус 429.
      *
      * @param userId  идентификатор запрашивающего пользователя
      * @param eventId идентификатор события для участия
@@ -161,7 +170,8 @@ public class UserPrivateController {
     public ParticipationRequestDto addParticipationRequestToEvent(@PathVariable Long userId,
                                                                   @RequestParam Long eventId) {
         log.info("Пользователь с id '{}' запрашивает участие в событии с id '{}'.", userId, eventId);
-        final ParticipationRequest participationRequest = userService.addParticipationRequestToEvent(userId, eventId);
+        final ParticipationRequest participationRequest = participationAdmissionService
+                .addParticipationRequest(userId, eventId);
         return participationMapper.toDto(participationRequest);
     }
 
@@ -172,6 +182,7 @@ public class UserPrivateController {
      * @return запросы на участие
      */
     @GetMapping("/{userId}/requests")
+    @QueryBudget(3)
     public List<ParticipationRequestDto> findParticipationRequestsByUser(@PathVariable Long userId) {
         log.info("Пользователь с id '{}' запрашивает список запросов на участие.", userId);
         final List<ParticipationRequest> participationRequests = userService.findParticipationRequestsByUser(userId);
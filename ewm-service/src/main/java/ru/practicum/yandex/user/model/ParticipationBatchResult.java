@@ -0,0 +1,26 @@
+package ru.practicum.yandex.user.model;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Результат пакетного сохранения запросов на участие. Ключом обеих таблиц является идентификатор запрашивающего
+ * пользователя.
+ */
+@Getter
+public class ParticipationBatchResult {
+
+    private final Map<Long, ParticipationRequest> accepted = new HashMap<>();
+
+    private final Map<Long, RuntimeException> rejected = new HashMap<>();
+
+    public void accept(ParticipationRequest participationRequest) {
+        accepted.put(participationRequest.getRequester().getId(), participationRequest);
+    }
+
+    public void reject(Long userId, RuntimeException cause) {
+        rejected.put(userId, cause);
+    }
+}
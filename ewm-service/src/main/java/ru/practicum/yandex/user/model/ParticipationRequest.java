@@ -19,6 +19,7 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -33,7 +34,8 @@ import java.time.LocalDateTime;
 public class ParticipationRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participations_id_seq")
+    @SequenceGenerator(name = "participations_id_seq", sequenceName = "participations_id_seq", allocationSize = 50)
     private Long id;
 
     @CreationTimestamp
@@ -4,20 +4,21 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.yandex.user.model.ParticipationRequest;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 public interface ParticipationRequestRepository extends JpaRepository<ParticipationRequest, Long> {
 
-    @Query("SELECT p FROM ParticipationRequest p JOIN FETCH p.requester r JOIN FETCH p.event e WHERE r.id = :requesterId AND e.id = :eventId")
-    Optional<ParticipationRequest> findByRequesterIdAndEventId(Long requesterId, Long eventId);
-
-    @Query("SELECT p FROM ParticipationRequest p JOIN FETCH p.requester r JOIN FETCH p.event e WHERE r.id = :requesterId")
+    @Query("SELECT p FROM ParticipationRequest p WHERE p.requester.id = :requesterId")
     List<ParticipationRequest> findAllByRequesterId(Long requesterId);
 
-    @Query("SELECT p FROM ParticipationRequest p JOIN FETCH p.requester r JOIN FETCH p.event e WHERE e.id = :eventId")
+    @Query("SELECT p FROM ParticipationRequest p WHERE p.event.id = :eventId")
     List<ParticipationRequest> findAllByEventId(Long eventId);
 
-    @Query("SELECT p FROM ParticipationRequest p JOIN FETCH p.requester r JOIN FETCH p.event e WHERE p.id IN :requestIds")
+    @Query("SELECT p FROM ParticipationRequest p WHERE p.id IN :requestIds")
     List<ParticipationRequest> findAllByIdIn(List<Long> requestIds);
+
+    @Query("SELECT p.requester.id FROM ParticipationRequest p WHERE p.event.id = :eventId AND p.requester.id IN :requesterIds")
+    Set<Long> findRequesterIdsByEventIdAndRequesterIdIn(Long eventId, Collection<Long> requesterIds);
 }
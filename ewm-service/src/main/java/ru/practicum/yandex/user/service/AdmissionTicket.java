@@ -0,0 +1,50 @@
+package ru.practicum.yandex.user.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.yandex.user.model.ParticipationRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Запрос на участие, принятый в очередь "горячего" события и ожидающий пакетного сохранения. Сохранение и отмена
+ * по таймауту взаимно исключают друг друга: билет либо забирается в пакет для сохранения, либо отменяется ожидающим
+ * потоком, но не то и другое сразу.
+ */
+@Getter
+@RequiredArgsConstructor
+class AdmissionTicket {
+
+    private final Long userId;
+
+    private final CompletableFuture<ParticipationRequest> result = new CompletableFuture<>();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+
+    /**
+     * Забирает билет в пакет для сохранения.
+     *
+     * @return false, если билет уже отменен
+     */
+    boolean claim() {
+        return state.compareAndSet(State.QUEUED, State.CLAIMED);
+    }
+
+    /**
+     * Отменяет билет, который еще не забран в пакет.
+     *
+     * @return false, если билет уже сохраняется
+     */
+    boolean cancel() {
+        return state.compareAndSet(State.QUEUED, State.CANCELED);
+    }
+
+    private enum State {
+        QUEUED,
+        CLAIMED,
+        CANCELED
+    }
+}
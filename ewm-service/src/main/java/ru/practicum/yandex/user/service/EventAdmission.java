@@ -0,0 +1,137 @@
+package ru.practicum.yandex.user.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Состояние допуска для одного события: счетчик запросов в текущей и предыдущей секунде, счетчик свободных мест и
+ * ограниченная FIFO-очередь принятых запросов. Счетчик свободных мест загружается при первом запросе и обновляется
+ * по базе данных при каждом сохранении очереди, пока событие остается горячим.
+ */
+class EventAdmission {
+
+    static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final int NOT_LOADED = -1;
+
+    private final Long eventId;
+
+    private final BlockingQueue<AdmissionTicket> queue;
+
+    private final AtomicInteger remainingSlots = new AtomicInteger(NOT_LOADED);
+
+    private long currentSecond;
+
+    private int currentSecondRequests;
+
+    private int previousSecondRequests;
+
+    private boolean retired;
+
+    EventAdmission(Long eventId, int queueCapacity) {
+        this.eventId = eventId;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    Long getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Учитывает очередной запрос и сообщает, является ли событие "горячим", то есть превышен ли порог запросов в
+     * секунду в текущей или предыдущей секунде.
+     *
+     * @return true, если событие горячее; null, если состояние уже выведено из оборота и его нужно создать заново
+     */
+    synchronized Boolean registerRequest(long nowMillis, int threshold) {
+        if (retired) {
+            return null;
+        }
+        rollWindow(nowMillis);
+        currentSecondRequests++;
+        return isHot(threshold);
+    }
+
+    /**
+     * Выводит состояние из оборота, если событие остыло и очередь пуста.
+     */
+    synchronized boolean retireIfIdle(long nowMillis, int threshold) {
+        rollWindow(nowMillis);
+        if (!isHot(threshold) && queue.isEmpty()) {
+            retired = true;
+        }
+        return retired;
+    }
+
+    int acquireSlot(IntSupplier slotLoader) {
+        if (remainingSlots.get() == NOT_LOADED) {
+            remainingSlots.compareAndSet(NOT_LOADED, slotLoader.getAsInt());
+        }
+        return remainingSlots.getAndUpdate(slots -> slots > 0 && slots != UNLIMITED ? slots - 1 : slots);
+    }
+
+    /**
+     * Возвращает место запроса, который был отклонен, не заняв места: повторный запрос, запрос инициатора, запрос
+     * к неопубликованному событию или запрос, не дождавшийся сохранения.
+     */
+    void releaseSlot() {
+        remainingSlots.getAndUpdate(slots -> slots >= 0 && slots != UNLIMITED ? slots + 1 : slots);
+    }
+
+    /**
+     * Отмечает, что база данных отклонила запрос из-за лимита участников: последующие запросы отклоняются сразу до
+     * следующего обновления счетчика.
+     */
+    void exhaustSlots() {
+        remainingSlots.set(0);
+    }
+
+    /**
+     * Обновляет счетчик свободных мест по данным базы данных, например после подтверждения запросов модератором.
+     * Места, занятые запросами в очереди, вычитаются, так как эти запросы еще не сохранены. Незагруженный счетчик
+     * не обновляется.
+     *
+     * @param slots количество свободных мест в базе данных или {@link #UNLIMITED}
+     */
+    void refreshSlots(int slots) {
+        int queued = queue.size();
+        remainingSlots.getAndUpdate(current -> {
+            if (current == NOT_LOADED) {
+                return NOT_LOADED;
+            }
+            return slots == UNLIMITED ? UNLIMITED : Math.max(slots - queued, 0);
+        });
+    }
+
+    boolean offer(AdmissionTicket ticket) {
+        return queue.offer(ticket);
+    }
+
+    void remove(AdmissionTicket ticket) {
+        queue.remove(ticket);
+    }
+
+    List<AdmissionTicket> drain(int maxBatchSize) {
+        List<AdmissionTicket> batch = new ArrayList<>(Math.min(maxBatchSize, queue.size()));
+        queue.drainTo(batch, maxBatchSize);
+        return batch;
+    }
+
+    private void rollWindow(long nowMillis) {
+        long second = nowMillis / 1000;
+        if (second == currentSecond) {
+            return;
+        }
+        previousSecondRequests = second == currentSecond + 1 ? currentSecondRequests : 0;
+        currentSecondRequests = 0;
+        currentSecond = second;
+    }
+
+    private boolean isHot(int threshold) {
+        return currentSecondRequests > threshold || previousSecondRequests > threshold;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.yandex.user.service;
+
+import ru.practicum.yandex.user.model.ParticipationRequest;
+
+public interface ParticipationAdmissionService {
+    ParticipationRequest addParticipationRequest(Long userId, Long eventId);
+}
@@ -0,0 +1,268 @@
+package ru.practicum.yandex.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.repository.EventRepository;
+import ru.practicum.yandex.shared.exception.NotAuthorizedException;
+import ru.practicum.yandex.shared.exception.NotFoundException;
+import ru.practicum.yandex.shared.exception.ParticipantLimitExceededException;
+import ru.practicum.yandex.shared.exception.TooManyRequestsException;
+import ru.practicum.yandex.user.model.ParticipationBatchResult;
+import ru.practicum.yandex.user.model.ParticipationRequest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Режим допуска для "горячих" событий. Пока поток запросов на участие в событии не превышает порог, запросы идут
+ * обычным путем через {@link UserService#addParticipationRequestToEvent(Long, Long)}. Когда порог превышен, событие
+ * получает счетчик свободных мест в памяти и ограниченную очередь: запросы сверх лимита участников или сверх емкости
+ * очереди отклоняются сразу, без обращения к базе данных, а принятые запросы сохраняются пакетами. После каждого
+ * сохранения очереди счетчик свободных мест перечитывается из базы данных, поэтому подтверждения запросов модератором
+ * и запросы, сохраненные другими экземплярами сервиса, учитываются, пока событие остается горячим.
+ */
+@Service
+@Slf4j
+public class ParticipationAdmissionServiceImpl implements ParticipationAdmissionService {
+
+    private final UserService userService;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EventRepository eventRepository;
+
+    private final boolean enabled;
+
+    private final int hotThreshold;
+
+    private final int queueCapacity;
+
+    private final int batchSize;
+
+    private final long awaitTimeoutMs;
+
+    private final ConcurrentMap<Long, EventAdmission> admissions = new ConcurrentHashMap<>();
+
+    public ParticipationAdmissionServiceImpl(UserService userService,
+                                             EntityManagerFactory entityManagerFactory,
+                                             EventRepository eventRepository,
+                                             @Value("${ewm.admission.enabled:false}") boolean enabled,
+                                             @Value("${ewm.admission.hot-threshold:50}") int hotThreshold,
+                                             @Value("${ewm.admission.queue-capacity:1000}") int queueCapacity,
+                                             @Value("${ewm.admission.batch-size:100}") int batchSize,
+                                             @Value("${ewm.admission.await-timeout-ms:5000}") long awaitTimeoutMs) {
+        this.userService = userService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+        this.hotThreshold = hotThreshold;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.awaitTimeoutMs = awaitTimeoutMs;
+    }
+
+    /**
+     * Добавление запроса на участие в событии с учетом режима допуска. Для горячего события запрос ставится в очередь,
+     * а вызывающий поток ожидает результата пакетного сохранения.
+     *
+     * @param userId  идентификатор запрашивающего пользователя
+     * @param eventId идентификатор события для участия
+     * @return сохраненный запрос на участие
+     */
+    @Override
+    public ParticipationRequest addParticipationRequest(Long userId, Long eventId) {
+        if (!enabled) {
+            return userService.addParticipationRequestToEvent(userId, eventId);
+        }
+        EventAdmission admission = registerRequest(eventId);
+        if (admission == null) {
+            return userService.addParticipationRequestToEvent(userId, eventId);
+        }
+        AdmissionTicket ticket = admit(admission, userId);
+        return await(admission, ticket);
+    }
+
+    /**
+     * Сохранение накопленных очередей горячих событий пакетами, обновление счетчиков свободных мест горячих событий
+     * и удаление состояния остывших событий.
+     */
+    @Scheduled(fixedDelayString = "${ewm.admission.flush-interval-ms:20}")
+    public void flushAdmissionQueues() {
+        long now = System.currentTimeMillis();
+        for (EventAdmission admission : admissions.values()) {
+            List<AdmissionTicket> batch = admission.drain(batchSize);
+            while (!batch.isEmpty()) {
+                persistBatch(admission, batch);
+                batch = admission.drain(batchSize);
+            }
+            if (admission.retireIfIdle(now, hotThreshold)) {
+                admissions.remove(admission.getEventId(), admission);
+            } else {
+                refreshRemainingSlots(admission);
+            }
+        }
+    }
+
+    private EventAdmission registerRequest(Long eventId) {
+        while (true) {
+            EventAdmission admission = admissions.computeIfAbsent(eventId, id -> new EventAdmission(id, queueCapacity));
+            Boolean hot = admission.registerRequest(System.currentTimeMillis(), hotThreshold);
+            if (hot != null) {
+                return hot ? admission : null;
+            }
+            admissions.remove(eventId, admission);
+        }
+    }
+
+    private AdmissionTicket admit(EventAdmission admission, Long userId) {
+        Long eventId = admission.getEventId();
+        int slots = admission.acquireSlot(() -> loadRemainingSlots(eventId));
+        if (slots == 0) {
+            throw new ParticipantLimitExceededException("Лимит участников превышен для события с id '" + eventId + "'.");
+        }
+        AdmissionTicket ticket = new AdmissionTicket(userId);
+        if (!admission.offer(ticket)) {
+            admission.releaseSlot();
+            throw new TooManyRequestsException("Очередь запросов на участие в событии с id '" + eventId +
+                    "' переполнена. Повторите запрос позже.");
+        }
+        return ticket;
+    }
+
+    /**
+     * Загрузка количества свободных мест события. Запрос выполняется в отдельном EntityManager, который сразу
+     * возвращает соединение в пул: EntityManager open-in-view удерживал бы соединение, пока вызывающий поток ждет
+     * пакетного сохранения, и при всплеске запросов пул соединений исчерпывался бы раньше, чем сохранение начнется.
+     *
+     * @param eventId идентификатор события
+     * @return количество свободных мест или {@link EventAdmission#UNLIMITED}
+     */
+    private int loadRemainingSlots(Long eventId) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        Event event;
+        try {
+            event = Optional.ofNullable(entityManager.find(Event.class, eventId))
+                    .orElseThrow(() -> new NotFoundException("Событие с id '" + eventId + "' не найдено."));
+        } finally {
+            entityManager.close();
+        }
+        return remainingSlots(event.getParticipantLimit(), event.isRequestModeration(), event.getNumberOfParticipants());
+    }
+
+    private void refreshRemainingSlots(EventAdmission admission) {
+        try {
+            eventRepository.findLimitAndModerationById(admission.getEventId())
+                    .ifPresent(event -> admission.refreshSlots(remainingSlots(event.getParticipantLimit(),
+                            event.isRequestModeration(), event.getNumberOfParticipants())));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обновить количество свободных мест события с id '{}'. Причина: {}",
+                    admission.getEventId(), e.getMessage());
+        }
+    }
+
+    private static int remainingSlots(int participantLimit, boolean requestModeration, int numberOfParticipants) {
+        if (participantLimit == 0) {
+            return EventAdmission.UNLIMITED;
+        }
+        int remainingSlots = Math.max(participantLimit - numberOfParticipants, 0);
+        if (requestModeration && remainingSlots > 0) {
+            return EventAdmission.UNLIMITED;
+        }
+        return remainingSlots;
+    }
+
+    /**
+     * Возврат места отклоненного запроса. Запрос, отклоненный базой данных из-за лимита участников, места не
+     * возвращает: лимит уже исчерпан, и последующие запросы отклоняются сразу до обновления счетчика.
+     */
+    private static void releaseRejectedSlot(EventAdmission admission, RuntimeException rejection) {
+        if (rejection instanceof ParticipantLimitExceededException) {
+            admission.exhaustSlots();
+        } else {
+            admission.releaseSlot();
+        }
+    }
+
+    /**
+     * Пакетное сохранение запросов. Билеты, отмененные ожидающими потоками по таймауту, в пакет не попадают. Если пакет
+     * не удалось сохранить целиком, например из-за нарушения ограничения при фиксации транзакции, запросы пакета
+     * сохраняются по одному обычным путем, который преобразует нарушения ограничений в ошибки предметной области.
+     */
+    private void persistBatch(EventAdmission admission, List<AdmissionTicket> queued) {
+        List<AdmissionTicket> batch = queued.stream().filter(AdmissionTicket::claim).collect(Collectors.toList());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = batch.stream().map(AdmissionTicket::getUserId).collect(Collectors.toList());
+        try {
+            ParticipationBatchResult result = userService.addParticipationRequestsToEvent(admission.getEventId(), userIds);
+            for (AdmissionTicket ticket : batch) {
+                ParticipationRequest accepted = result.getAccepted().remove(ticket.getUserId());
+                if (accepted != null) {
+                    ticket.getResult().complete(accepted);
+                } else {
+                    RuntimeException rejection = result.getRejected().get(ticket.getUserId());
+                    if (rejection == null) {
+                        rejection = new NotAuthorizedException("Запрос на участие пользователя с id '" +
+                                ticket.getUserId() + "' в событии с id '" + admission.getEventId() + "' не был сохранен.");
+                    }
+                    releaseRejectedSlot(admission, rejection);
+                    ticket.getResult().completeExceptionally(rejection);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сохранить пакет запросов на участие для события с id '{}', запросы сохраняются по одному. " +
+                    "Причина: {}", admission.getEventId(), e.getMessage());
+            batch.forEach(ticket -> persistSingle(admission, ticket));
+        }
+    }
+
+    private void persistSingle(EventAdmission admission, AdmissionTicket ticket) {
+        try {
+            ticket.getResult().complete(userService.addParticipationRequestToEvent(ticket.getUserId(), admission.getEventId()));
+        } catch (RuntimeException e) {
+            releaseRejectedSlot(admission, e);
+            ticket.getResult().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Ожидание результата пакетного сохранения. Если время ожидания истекло, а билет еще в очереди, он отменяется и
+     * освобождает место: клиент получает предложение повторить запрос, и повтор не упрется в уже сохраненный запрос.
+     * Если билет уже забран в пакет, поток дожидается результата сохранения.
+     */
+    private ParticipationRequest await(EventAdmission admission, AdmissionTicket ticket) {
+        try {
+            try {
+                return ticket.getResult().get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (ticket.cancel()) {
+                    admission.remove(ticket);
+                    admission.releaseSlot();
+                    throw new TooManyRequestsException("Запрос на участие в событии с id '" + admission.getEventId() +
+                            "' не был обработан вовремя. Повторите запрос позже.");
+                }
+                return ticket.getResult().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
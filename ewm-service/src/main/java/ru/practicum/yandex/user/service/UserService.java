@@ -5,6 +5,7 @@ import ru.practicum.yandex.events.model.Event;
 import ru.practicum.yandex.user.dto.EventRequestStatusUpdateDto;
 import ru.practicum.yandex.user.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.yandex.user.model.NewEvent;
+import ru.practicum.yandex.user.model.ParticipationBatchResult;
 import ru.practicum.yandex.user.model.ParticipationRequest;
 import ru.practicum.yandex.user.model.User;
 
@@ -27,6 +28,8 @@ public interface UserService {
 
     ParticipationRequest addParticipationRequestToEvent(Long userId, Long eventId);
 
+    ParticipationBatchResult addParticipationRequestsToEvent(Long eventId, List<Long> userIds);
+
     List<ParticipationRequest> findParticipationRequestsByUser(Long userId);
 
     ParticipationRequest cancelOwnParticipationRequest(Long userId, Long requestId);
@@ -1,7 +1,9 @@
 package ru.practicum.yandex.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,43 +12,67 @@ import ru.practicum.yandex.category.repository.CategoryRepository;
 import ru.practicum.yandex.events.dto.EventUpdateRequest;
 import ru.practicum.yandex.events.mapper.EventMapper;
 import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.EventLimitModerationView;
+import ru.practicum.yandex.events.model.EventOwnerStateView;
+import ru.practicum.yandex.events.model.EventParticipationView;
 import ru.practicum.yandex.events.model.EventState;
 import ru.practicum.yandex.events.model.Location;
 import ru.practicum.yandex.events.repository.CommentRepository;
+import ru.practicum.yandex.events.repository.EventCountersRepository;
 import ru.practicum.yandex.events.repository.EventRepository;
 import ru.practicum.yandex.events.repository.LocationRepository;
+import ru.practicum.yandex.events.service.EventCommentsLoader;
 import ru.practicum.yandex.shared.OffsetPageRequest;
+import ru.practicum.yandex.shared.RequestIdentityCache;
+import ru.practicum.yandex.shared.exception.ConstraintViolations;
 import ru.practicum.yandex.shared.exception.EventNotModifiableException;
 import ru.practicum.yandex.shared.exception.NotAuthorizedException;
 import ru.practicum.yandex.shared.exception.NotFoundException;
+import ru.practicum.yandex.shared.exception.ParticipantLimitExceededException;
 import ru.practicum.yandex.shared.exception.RequestAlreadyExistsException;
+import ru.practicum.yandex.shared.metrics.MetricsConfig;
 import ru.practicum.yandex.user.dto.EventRequestStatusUpdateDto;
 import ru.practicum.yandex.user.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.yandex.user.mapper.ParticipationMapper;
 import ru.practicum.yandex.user.model.NewEvent;
+import ru.practicum.yandex.user.model.ParticipationBatchResult;
 import ru.practicum.yandex.user.model.ParticipationRequest;
+import ru.practicum.yandex.user.model.ParticipationStatus;
 import ru.practicum.yandex.user.model.User;
 import ru.practicum.yandex.user.repository.ParticipationRequestRepository;
 import ru.practicum.yandex.user.repository.UserRepository;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static ru.practicum.yandex.user.model.ParticipationStatus.*;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(MetricsConfig.SERVICE_METHOD_TIMER)
 public class UserServiceImpl implements UserService {
 
+    private static final String REQUESTER_EVENT_UNIQUE_CONSTRAINT = "participations_requester_event_unq";
+    private static final String REQUESTER_FOREIGN_KEY = "participations_requester_fk";
+
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
+    private final EventCountersRepository eventCountersRepository;
     private final LocationRepository locationRepository;
     private final ParticipationRequestRepository participationRequestRepository;
     private final CommentRepository commentRepository;
     private final EventMapper eventMapper;
     private final ParticipationMapper participationMapper;
+    private final RequestIdentityCache identityCache;
+    private final EventCommentsLoader eventCommentsLoader;
 
     /**
      * Добавление нового пользователя.
@@ -57,6 +83,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public User createUser(User userToAdd) {
         User savedUser = userRepository.save(userToAdd);
+        identityCache.evict(User.class, savedUser.getId());
         log.info("Пользователь с id '{}' создан.", savedUser.getId());
         return savedUser;
     }
@@ -82,9 +109,10 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public void deleteUser(Long userId) {
-        getUser(userId);
+        checkUserExists(userId);
         log.info("Удаление пользователя с id '{}'.", userId);
         userRepository.deleteById(userId);
+        identityCache.evict(User.class, userId);
     }
 
     /**
@@ -116,9 +144,10 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public List<Event> findEventsFromUser(Long userId, Long from, Integer size) {
-        getUser(userId);
+        checkUserExists(userId);
         OffsetPageRequest pageRequest = OffsetPageRequest.of(from, size);
         List<Event> userEvents = eventRepository.findEventsByUserId(userId, pageRequest);
+        eventCommentsLoader.loadLatestComments(userEvents);
         log.info("Запрос событий от пользователя с id '{}'. Найдено событий: '{}'.", userId, userEvents.size());
         return userEvents;
     }
@@ -133,11 +162,11 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Event getFullEventByInitiator(Long userId, Long eventId) {
-        getUser(userId);
+        checkUserExists(userId);
         Event foundEvent = getEvent(eventId);
-        checkIfUserIsEventInitiator(userId, foundEvent);
+        checkIfUserIsEventInitiator(userId, eventId, foundEvent.getInitiator().getId());
         log.info("Запрос информации о событии с id '{}' пользователем с id '{}'.", eventId, userId);
-        return foundEvent;
+        return eventCommentsLoader.loadLatestComments(foundEvent);
     }
 
     /**
@@ -152,14 +181,15 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public Event updateEvent(Long userId, Long eventId, EventUpdateRequest updateEvent) {
-        getUser(userId);
+        checkUserExists(userId);
         Event eventToUpdate = getEvent(eventId);
         checkEventIsPublished(eventToUpdate);
         changeStateIfNeeded(updateEvent, eventToUpdate);
         eventMapper.updateEvent(updateEvent, eventToUpdate);
         Event updatedEvent = eventRepository.save(eventToUpdate);
+        evictEvent(eventId);
         log.info("Событие с id '{}' было обновлено пользователем с id '{}'.", eventId, userId);
-        return updatedEvent;
+        return eventCommentsLoader.loadLatestComments(updatedEvent);
     }
 
     /**
@@ -172,9 +202,9 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public List<ParticipationRequest> findParticipationRequestsForUsersEvent(Long userId, Long eventId) {
-        getUser(userId);
-        Event event = getEvent(eventId);
-        checkIfUserIsEventInitiator(userId, event);
+        checkUserExists(userId);
+        EventOwnerStateView event = getEventOwnerAndState(eventId);
+        checkIfUserIsEventInitiator(userId, eventId, event.getInitiatorId());
         List<ParticipationRequest> participationRequests = participationRequestRepository.findAllByEventId(eventId);
         log.info("Получение запросов на участие для события с id '{}' пользователем с id '{}'.", eventId, userId);
         return participationRequests;
@@ -195,8 +225,8 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public EventRequestStatusUpdateDto changeParticipationRequestStatusForUsersEvent(
             Long userId, Long eventId, EventRequestStatusUpdateRequest statusUpdate) {
-        getUser(userId);
-        Event event = getEvent(eventId);
+        checkUserExists(userId);
+        EventLimitModerationView event = getEventLimitAndModeration(eventId);
         int participantLimit = checkParticipantLimit(event);
         List<Long> requestIds = statusUpdate.getRequestIds();
         List<ParticipationRequest> participationRequests = participationRequestRepository.findAllByIdIn(requestIds);
@@ -204,6 +234,10 @@ public class UserServiceImpl implements UserService {
         EventRequestStatusUpdateDto eventRequestStatusUpdate = new EventRequestStatusUpdateDto();
         lastConfirmedRequest = populateStatusUpdateDto(statusUpdate, participationRequests, eventRequestStatusUpdate, lastConfirmedRequest, event, participantLimit);
         rejectRemainingRequestsAfterExceedingParticipantLimit(lastConfirmedRequest, participationRequests, eventRequestStatusUpdate);
+        if (lastConfirmedRequest > 0 && eventCountersRepository.addConfirmedRequestsIfLimitNotExceeded(eventId, lastConfirmedRequest) == 0) {
+            throw new NotAuthorizedException("Лимит участников достигнут");
+        }
+        evictEvent(eventId);
         log.info("Статус участия для события с id '{}' был обновлен пользователем с id '{}'. Запрос на обновление: '{}'.",
                 eventId, userId, statusUpdate);
         return eventRequestStatusUpdate;
@@ -223,19 +257,74 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public ParticipationRequest addParticipationRequestToEvent(Long userId, Long eventId) {
-        User user = getUser(userId);
-        Event event = getEvent(eventId);
-        checkIfUserCanMakeRequest(userId, eventId, event);
-        checkIfParticipationRequestExists(userId, eventId);
-        checkIfEventIsPublished(event, userId);
-        log.info("Пользователь с id '{}' добавил запрос на участие для события с id '{}'.", userId, eventId);
-        ParticipationRequest participationRequest = createParticipantRequest(user, event);
-        ParticipationRequest savedRequest = participationRequestRepository.save(participationRequest);
-        log.info("Запрос на участие с id '{}' был сохранен. Текущее количество участников события с id '{}' составляет '{}'.",
-                participationRequest.getId(), eventId, event.getNumberOfParticipants());
+        EventParticipationView event = eventRepository.findParticipationViewById(eventId)
+                .orElseThrow(() -> new NotFoundException("Событие с id '" + eventId + "' не найдено."));
+        checkIfUserCanMakeRequest(userId, eventId, event.getInitiatorId());
+        checkIfEventIsPublished(event.getState(), eventId, userId);
+        ParticipationRequest participationRequest = ParticipationRequest.builder()
+                .requester(userRepository.getReferenceById(userId))
+                .event(eventRepository.getReferenceById(eventId))
+                .status(getInitialStatus(event))
+                .build();
+        ParticipationRequest savedRequest = saveParticipationRequest(participationRequest, userId, eventId);
+        if (savedRequest.getStatus() == CONFIRMED && eventCountersRepository.incrementConfirmedRequestsIfLimitNotReached(eventId) == 0) {
+            throw participantLimitExceeded(eventId);
+        }
+        evictEvent(eventId);
+        log.info("Пользователь с id '{}' добавил запрос на участие с id '{}' для события с id '{}'.",
+                userId, savedRequest.getId(), eventId);
         return savedRequest;
     }
 
+    /**
+     * Пакетное добавление запросов на участие в одном событии. Событие, пользователи и уже существующие запросы
+     * загружаются один раз на весь пакет, а счетчик участников события обновляется одним условным запросом к узкой
+     * таблице счетчиков.
+     * Проверки совпадают с {@link #addParticipationRequestToEvent(Long, Long)}; запрос, не прошедший проверку, попадает
+     * в список отклоненных и не мешает сохранению остальных.
+     *
+     * @param eventId идентификатор события для участия
+     * @param userIds идентификаторы запрашивающих пользователей в порядке поступления
+     * @return сохраненные и отклоненные запросы на участие
+     */
+    @Override
+    @Transactional
+    public ParticipationBatchResult addParticipationRequestsToEvent(Long eventId, List<Long> userIds) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new NotFoundException("Событие с id '" + eventId + "' не найдено."));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Set<Long> requesters = new HashSet<>(participationRequestRepository
+                .findRequesterIdsByEventIdAndRequesterIdIn(eventId, userIds));
+        ParticipationBatchResult result = new ParticipationBatchResult();
+        List<ParticipationRequest> requestsToSave = new ArrayList<>();
+        for (Long userId : userIds) {
+            try {
+                User user = Optional.ofNullable(users.get(userId))
+                        .orElseThrow(() -> new NotFoundException("Пользователь с id '" + userId + "' не найден."));
+                checkIfUserCanMakeRequest(userId, eventId, event.getInitiator().getId());
+                if (!requesters.add(userId)) {
+                    throw requestAlreadyExists(userId, eventId);
+                }
+                checkIfEventIsPublished(event.getState(), eventId, userId);
+                requestsToSave.add(createParticipantRequest(user, event));
+            } catch (RuntimeException e) {
+                result.reject(userId, e);
+            }
+        }
+        participationRequestRepository.saveAll(requestsToSave).forEach(result::accept);
+        int confirmed = (int) requestsToSave.stream()
+                .filter(participationRequest -> participationRequest.getStatus() == CONFIRMED)
+                .count();
+        if (confirmed > 0 && eventCountersRepository.addConfirmedRequestsIfLimitNotExceeded(eventId, confirmed) == 0) {
+            throw participantLimitExceeded(eventId);
+        }
+        evictEvent(eventId);
+        log.info("Пакет запросов на участие для события с id '{}' обработан: сохранено '{}', отклонено '{}'.",
+                eventId, result.getAccepted().size(), result.getRejected().size());
+        return result;
+    }
+
     /**
      * Поиск запросов на участие пользователя.
      *
@@ -244,7 +333,7 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public List<ParticipationRequest> findParticipationRequestsByUser(Long userId) {
-        getUser(userId);
+        checkUserExists(userId);
         List<ParticipationRequest> participationRequests = participationRequestRepository.findAllByRequesterId(userId);
         log.info("Пользователь с id '{}' запрашивает список запросов на участие размером '{}'.", userId, participationRequests.size());
         return participationRequests;
@@ -260,7 +349,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public ParticipationRequest cancelOwnParticipationRequest(Long userId, Long requestId) {
-        getUser(userId);
+        checkUserExists(userId);
         ParticipationRequest participationRequest = getParticipationRequest(requestId);
         checkIfUserCanCancelParticipationRequest(userId, participationRequest);
         participationRequest.setStatus(CANCELED);
@@ -268,7 +357,8 @@ public class UserServiceImpl implements UserService {
         return participationRequest;
     }
 
-    private int populateStatusUpdateDto(EventRequestStatusUpdateRequest statusUpdate, List<ParticipationRequest> participationRequests, EventRequestStatusUpdateDto eventRequestStatusUpdate, int lastConfirmedRequest, Event event, int participantLimit) {
+    private int populateStatusUpdateDto(EventRequestStatusUpdateRequest statusUpdate, List<ParticipationRequest> participationRequests, EventRequestStatusUpdateDto eventRequestStatusUpdate, int lastConfirmedRequest, EventLimitModerationView event, int participantLimit) {
+        int confirmedParticipants = event.getNumberOfParticipants();
         for (ParticipationRequest participationRequest : participationRequests) {
             if (!participationRequest.getStatus().equals(PENDING)) {
                 throw new NotAuthorizedException("Для изменения статуса запрос должен иметь статус PENDING. Текущий статус: '"
@@ -279,9 +369,7 @@ public class UserServiceImpl implements UserService {
             if (statusUpdate.getStatus().equals(CONFIRMED)) {
                 eventRequestStatusUpdate.addConfirmedRequest(participationMapper.toDto(participationRequest));
                 lastConfirmedRequest++;
-                int incrementedParticipants = event.addParticipant();
-                eventRepository.save(event);
-                if (incrementedParticipants == participantLimit) {
+                if (++confirmedParticipants == participantLimit) {
                     break;
                 }
             }
@@ -298,7 +386,7 @@ public class UserServiceImpl implements UserService {
         }
     }
 
-    private static int checkParticipantLimit(Event event) {
+    private static int checkParticipantLimit(EventLimitModerationView event) {
         int participantLimit = event.getParticipantLimit();
         if (participantLimit == 0 || !event.isRequestModeration()) {
             throw new EventNotModifiableException("Событие с id '" + event.getId() + "' не имеет лимита участников или " +
@@ -312,10 +400,10 @@ public class UserServiceImpl implements UserService {
         return participantLimit;
     }
 
-    private void checkIfUserIsEventInitiator(Long userId, Event event) {
-        if (!event.getInitiator().getId().equals(userId)) {
+    private void checkIfUserIsEventInitiator(Long userId, Long eventId, Long initiatorId) {
+        if (!initiatorId.equals(userId)) {
             throw new NotAuthorizedException("Пользователь с id '" + userId + "' не является инициатором события с id '" +
-                    event.getId() + "'.");
+                    eventId + "'.");
         }
     }
 
@@ -332,8 +420,14 @@ public class UserServiceImpl implements UserService {
     }
 
     private User getUser(Long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id '" + userId + "' не найден."));
+        return identityCache.get(User.class, userId, () -> userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id '" + userId + "' не найден.")));
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!identityCache.exists(User.class, userId, () -> userRepository.existsById(userId))) {
+            throw new NotFoundException("Пользователь с id '" + userId + "' не найден.");
+        }
     }
 
     private Event createNewEvent(NewEvent newEvent, Category category, User initiator, Location eventLocation) {
@@ -352,8 +446,24 @@ public class UserServiceImpl implements UserService {
     }
 
     private Event getEvent(Long eventId) {
-        return eventRepository.findFullEventById(eventId)
-                .orElseThrow(() -> new NotFoundException("Событие с id '" + eventId + "' не найдено."));
+        return identityCache.get(Event.class, eventId, () -> eventRepository.findFullEventById(eventId)
+                .orElseThrow(() -> new NotFoundException("Событие с id '" + eventId + "' не найдено.")));
+    }
+
+    private EventOwnerStateView getEventOwnerAndState(Long eventId) {
+        return identityCache.get(EventOwnerStateView.class, eventId, () -> eventRepository.findOwnerAndStateById(eventId)
+                .orElseThrow(() -> new NotFoundException("Событие с id '" + eventId + "' не найдено.")));
+    }
+
+    private EventLimitModerationView getEventLimitAndModeration(Long eventId) {
+        return identityCache.get(EventLimitModerationView.class, eventId, () -> eventRepository.findLimitAndModerationById(eventId)
+                .orElseThrow(() -> new NotFoundException("Событие с id '" + eventId + "' не найдено.")));
+    }
+
+    private void evictEvent(Long eventId) {
+        identityCache.evict(Event.class, eventId);
+        identityCache.evict(EventOwnerStateView.class, eventId);
+        identityCache.evict(EventLimitModerationView.class, eventId);
     }
 
     private void checkEventIsPublished(Event event) {
@@ -376,26 +486,49 @@ public class UserServiceImpl implements UserService {
         }
     }
 
-    private void checkIfParticipationRequestExists(Long userId, Long eventId) {
-        Optional<ParticipationRequest> participationRequest = participationRequestRepository
-                .findByRequesterIdAndEventId(userId, eventId);
-        if (participationRequest.isPresent()) {
-            throw new RequestAlreadyExistsException("Запрос на участие от пользователя с id '" + userId + "' для события " +
-                    "с id '" + eventId + "' уже существует.");
+    private RequestAlreadyExistsException requestAlreadyExists(Long userId, Long eventId) {
+        return new RequestAlreadyExistsException("Запрос на участие от пользователя с id '" + userId + "' для события " +
+                "с id '" + eventId + "' уже существует.");
+    }
+
+    private ParticipationRequest saveParticipationRequest(ParticipationRequest participationRequest, Long userId,
+                                                          Long eventId) {
+        try {
+            return participationRequestRepository.saveAndFlush(participationRequest);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, REQUESTER_EVENT_UNIQUE_CONSTRAINT)) {
+                throw requestAlreadyExists(userId, eventId);
+            }
+            if (ConstraintViolations.isViolated(e, REQUESTER_FOREIGN_KEY)) {
+                throw new NotFoundException("Пользователь с id '" + userId + "' не найден.");
+            }
+            throw e;
+        }
+    }
+
+    private ParticipantLimitExceededException participantLimitExceeded(Long eventId) {
+        return new ParticipantLimitExceededException("Лимит участников превышен для события с id '" + eventId + "'.");
+    }
+
+    private ParticipationStatus getInitialStatus(EventParticipationView event) {
+        int participantLimit = event.getParticipantLimit();
+        if (participantLimit != 0 && event.getNumberOfParticipants() >= participantLimit) {
+            throw participantLimitExceeded(event.getId());
         }
+        return participantLimit == 0 || !event.isRequestModeration() ? CONFIRMED : PENDING;
     }
 
-    private void checkIfUserCanMakeRequest(Long userId, Long eventId, Event event) {
-        if (event.getInitiator().getId().equals(userId)) {
+    private void checkIfUserCanMakeRequest(Long userId, Long eventId, Long initiatorId) {
+        if (initiatorId.equals(userId)) {
             throw new NotAuthorizedException("Инициатор с id '" + userId + "' не может сделать запрос на участие " +
                     "в своем собственном событии с id '" + eventId + "'.");
         }
     }
 
-    private void checkIfEventIsPublished(Event event, Long userId) {
-        if (!event.getState().equals(EventState.PUBLISHED)) {
+    private void checkIfEventIsPublished(EventState state, Long eventId, Long userId) {
+        if (!state.equals(EventState.PUBLISHED)) {
             throw new NotAuthorizedException("Пользователь с id '" + userId + "' не может сделать запрос на участие в неопубликованном событии " +
-                    "с id '" + event.getId() + "'.");
+                    "с id '" + eventId + "'.");
         }
     }
 
@@ -405,18 +538,13 @@ public class UserServiceImpl implements UserService {
                 .event(event)
                 .build();
         if (event.getNumberOfParticipants() == event.getParticipantLimit() && event.getParticipantLimit() != 0) {
-            throw new NotAuthorizedException("Лимит участников превышен для события с id '" + event.getId() + "'.");
+            throw participantLimitExceeded(event.getId());
         } else if (event.getParticipantLimit() == 0 || !event.isRequestModeration()) {
             participationRequest.setStatus(CONFIRMED);
-            addConfirmedRequestToEvent(event);
+            event.addParticipant();
         } else {
             participationRequest.setStatus(PENDING);
         }
         return participationRequest;
     }
-
-    private void addConfirmedRequestToEvent(Event event) {
-        event.addParticipant();
-        eventRepository.save(event);
-    }
 }
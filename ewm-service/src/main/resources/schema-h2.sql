@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS locations_geohash_idx ON locations (geohash);
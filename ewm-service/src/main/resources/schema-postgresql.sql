@@ -0,0 +1,3 @@
+-- Поиск по радиусу отбирает места условием geohash LIKE 'префикс%'. При сортировке базы данных, отличной от C,
+-- обычный индекс btree такие условия не обслуживает, поэтому индекс строится с классом операторов varchar_pattern_ops.
+CREATE INDEX IF NOT EXISTS locations_geohash_idx ON locations (geohash varchar_pattern_ops);
@@ -1,28 +1,46 @@
-DROP TABLE IF EXISTS users, categories, events, locations, participations, compilations, event_compilation, event_comments;
+DROP TABLE IF EXISTS users, categories, events, locations, participations, compilations, event_compilation, event_comments, event_counters, event_details, stat_outbox;
+
+DROP SEQUENCE IF EXISTS users_id_seq;
+DROP SEQUENCE IF EXISTS categories_id_seq;
+DROP SEQUENCE IF EXISTS locations_id_seq;
+DROP SEQUENCE IF EXISTS events_id_seq;
+DROP SEQUENCE IF EXISTS participations_id_seq;
+DROP SEQUENCE IF EXISTS compilations_id_seq;
+DROP SEQUENCE IF EXISTS event_comments_id_seq;
+DROP SEQUENCE IF EXISTS stat_outbox_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS users_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS categories_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS locations_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS events_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS participations_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS compilations_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS event_comments_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS stat_outbox_id_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-                                     id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+                                     id BIGINT DEFAULT nextval('users_id_seq') NOT NULL PRIMARY KEY,
                                      username VARCHAR(250) NOT NULL,
                                      email VARCHAR(255) UNIQUE NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS categories (
-                                          id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+                                          id BIGINT DEFAULT nextval('categories_id_seq') NOT NULL PRIMARY KEY,
                                           category_name VARCHAR(50) UNIQUE NOT NULL
 );
 
 
 CREATE TABLE IF NOT EXISTS locations (
-                                         id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+                                         id BIGINT DEFAULT nextval('locations_id_seq') NOT NULL PRIMARY KEY,
                                          lat FLOAT NOT NULL,
                                          lon FLOAT NOT NULL,
+                                         geohash VARCHAR(12) NOT NULL,
                                          CONSTRAINT lat_lon_unq UNIQUE (lat, lon)
 );
 
 CREATE TABLE IF NOT EXISTS events (
-                                      id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+                                      id BIGINT DEFAULT nextval('events_id_seq') NOT NULL PRIMARY KEY,
                                       annotation VARCHAR(2000) NOT NULL,
-                                      description VARCHAR(7000) NOT NULL,
                                       title VARCHAR(120),
                                       category_id BIGINT NOT NULL,
                                       event_date TIMESTAMP NOT NULL,
@@ -34,25 +52,38 @@ CREATE TABLE IF NOT EXISTS events (
                                       created_on TIMESTAMP NOT NULL ,
                                       published_on TIMESTAMP,
                                       location_id BIGINT NOT NULL,
-                                      confirmed_requests INTEGER NOT NULL,
-                                      views BIGINT NOT NULL,
                                       FOREIGN KEY (category_id) REFERENCES categories(id),
                                       FOREIGN KEY (user_id) REFERENCES users(id),
                                       FOREIGN KEY (location_id) REFERENCES locations(id)
 );
 
+CREATE TABLE IF NOT EXISTS event_details (
+                                             event_id BIGINT NOT NULL PRIMARY KEY,
+                                             description VARCHAR(7000) NOT NULL,
+                                             CONSTRAINT event_details_event_fk FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS event_counters (
+                                              event_id BIGINT NOT NULL PRIMARY KEY,
+                                              views BIGINT NOT NULL DEFAULT 0,
+                                              confirmed_requests INTEGER NOT NULL DEFAULT 0,
+                                              comments_count BIGINT NOT NULL DEFAULT 0,
+                                              CONSTRAINT event_counters_event_fk FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+);
+
 CREATE TABLE IF NOT EXISTS participations (
-                                              id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+                                              id BIGINT DEFAULT nextval('participations_id_seq') NOT NULL PRIMARY KEY,
                                               created_on TIMESTAMP NOT NULL,
                                               status VARCHAR(11) NOT NULL,
                                               requester_id BIGINT NOT NULL,
                                               event_id BIGINT NOT NULL,
-                                              FOREIGN KEY (requester_id) REFERENCES users(id),
-                                              FOREIGN KEY (event_id) REFERENCES events(id)
+                                              CONSTRAINT participations_requester_fk FOREIGN KEY (requester_id) REFERENCES users(id),
+                                              CONSTRAINT participations_event_fk FOREIGN KEY (event_id) REFERENCES events(id),
+                                              CONSTRAINT participations_requester_event_unq UNIQUE (requester_id, event_id)
 );
 
 CREATE TABLE IF NOT EXISTS compilations (
-                                            id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+                                            id BIGINT DEFAULT nextval('compilations_id_seq') NOT NULL PRIMARY KEY,
                                             title VARCHAR(50) NOT NULL,
                                             pinned BOOLEAN NOT NULL
 );
@@ -66,11 +97,23 @@ CREATE TABLE IF NOT EXISTS event_compilation (
 );
 
 CREATE TABLE IF NOT EXISTS event_comments (
-                                              id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+                                              id BIGINT DEFAULT nextval('event_comments_id_seq') NOT NULL PRIMARY KEY,
                                               text VARCHAR(2000) NOT NULL,
                                               created TIMESTAMP NOT NULL,
                                               event_id BIGINT NOT NULL,
                                               author_id BIGINT NOT NULL,
                                               FOREIGN KEY (event_id) REFERENCES events(id),
                                               FOREIGN KEY (author_id) REFERENCES users(id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS event_comments_event_created_idx ON event_comments (event_id, created, id);
+
+CREATE TABLE IF NOT EXISTS stat_outbox (
+                                           id BIGINT DEFAULT nextval('stat_outbox_id_seq') NOT NULL PRIMARY KEY,
+                                           app VARCHAR(255) NOT NULL,
+                                           uri VARCHAR(255) NOT NULL,
+                                           ip VARCHAR(255) NOT NULL,
+                                           hit_timestamp TIMESTAMP NOT NULL,
+                                           lease_owner VARCHAR(36),
+                                           lease_until TIMESTAMP
+);
@@ -0,0 +1,129 @@
+package ru.practicum.yandex.shared.datasource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.yandex.StatClient;
+import ru.practicum.yandex.category.model.Category;
+import ru.practicum.yandex.category.service.CategoryService;
+import ru.practicum.yandex.shared.exception.NotFoundException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Проверка маршрутизации на двух отдельных базах H2 с одинаковыми схемой и данными. Репликации между ними нет,
+ * поэтому запись в основную базу не видна в реплике: по тому, видна ли запись при чтении, определяется, какая база
+ * обслужила транзакцию. Отставание реплики читается из таблицы replica_status, которая есть только в реплике.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "ewm.datasource.routing.enabled=true",
+        "ewm.datasource.routing.lag-query=SELECT lag_ms FROM replica_status",
+        "ewm.datasource.routing.max-lag-ms=5000",
+        "ewm.datasource.routing.check-interval-ms=3600000",
+        "ewm.datasource.routing.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "ewm.datasource.routing.replicas[0].username=sa",
+        "ewm.datasource.routing.replicas[0].password="
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+            "DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+            "DB_CLOSE_DELAY=-1";
+
+    private static final long SEEDED_CATEGORY_ID = 1000;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @MockBean
+    private StatClient statClient;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeAll
+    void seedDatabases() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("schema-h2.sql"))
+                .execute(replica.getDataSource());
+        replica.execute("CREATE TABLE replica_status (lag_ms BIGINT NOT NULL)");
+        for (JdbcTemplate database : List.of(primary, replica)) {
+            database.update("INSERT INTO categories (id, category_name) VALUES (?, ?)", SEEDED_CATEGORY_ID,
+                    "seeded category");
+        }
+    }
+
+    @BeforeEach
+    void markReplicaInSync() {
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_status (lag_ms BIGINT NOT NULL)");
+        replica.update("DELETE FROM replica_status");
+        replica.update("INSERT INTO replica_status (lag_ms) VALUES (0)");
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    @Test
+    void readOnlyTransactionReadsFromReplica() {
+        Category added = categoryService.addCategory(Category.builder().name("written to primary").build());
+
+        assertThat(categoryService.findCategoryById(SEEDED_CATEGORY_ID).getName()).isEqualTo("seeded category");
+        assertThat(names(categoryService.findCategories(0L, 100))).containsExactly("seeded category");
+        assertThatThrownBy(() -> categoryService.findCategoryById(added.getId()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void writeGoesToPrimary() {
+        Category added = categoryService.addCategory(Category.builder().name("primary only").build());
+
+        assertThat(countCategories(primary, added.getId())).isEqualTo(1);
+        assertThat(countCategories(replica, added.getId())).isZero();
+    }
+
+    @Test
+    void replicaFailingLagQueryFallsBackToPrimary() {
+        Category added = categoryService.addCategory(Category.builder().name("read after failover").build());
+        replica.execute("DROP TABLE replica_status");
+        replicaRoutingDataSource.checkReplicas();
+
+        assertThat(categoryService.findCategoryById(added.getId()).getName()).isEqualTo("read after failover");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        Category added = categoryService.addCategory(Category.builder().name("read while lagging").build());
+        replica.update("UPDATE replica_status SET lag_ms = 60000");
+        replicaRoutingDataSource.checkReplicas();
+
+        assertThat(categoryService.findCategoryById(added.getId()).getName()).isEqualTo("read while lagging");
+    }
+
+    private static List<String> names(List<Category> categories) {
+        return categories.stream().map(Category::getName).collect(Collectors.toList());
+    }
+
+    private static int countCategories(JdbcTemplate database, Long id) {
+        Integer count = database.queryForObject("SELECT COUNT(*) FROM categories WHERE id = ?", Integer.class, id);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,217 @@
+package ru.practicum.yandex.shared.sql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.yandex.StatClient;
+import ru.practicum.yandex.dto.TrendingUriDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверка бюджетов {@link QueryBudget} в строгом режиме профиля test: запрос, выполнивший больше SQL-запросов, чем
+ * объявлено бюджетом, завершается ошибкой. Списки запрашиваются на данных из нескольких пользователей, категорий,
+ * событий и комментариев, поэтому загрузка связей по одной строке превышает бюджет.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    private static final int USERS = 4;
+
+    private static final int CATEGORIES = 3;
+
+    private static final int EVENTS = 6;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private StatClient statClient;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    private final List<Long> categoryIds = new ArrayList<>();
+
+    private final List<Long> eventIds = new ArrayList<>();
+
+    private final List<Long> requestIds = new ArrayList<>();
+
+    private Long compilationId;
+
+    @BeforeAll
+    void createData() throws Exception {
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(id(post("/admin/users"), Map.of("name", "user" + i, "email", "user" + i + "@mail.ru")));
+        }
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryIds.add(id(post("/admin/categories"), Map.of("name", "category" + i)));
+        }
+        String eventDate = LocalDateTime.now().plusDays(10).format(DATE_FORMAT);
+        for (int i = 0; i < EVENTS; i++) {
+            Long eventId = id(post("/users/{userId}/events", userIds.get(i % 2)), Map.of(
+                    "annotation", "annotation of event " + i + " long enough",
+                    "category", categoryIds.get(i % CATEGORIES),
+                    "description", "description of event " + i + " long enough",
+                    "eventDate", eventDate,
+                    "location", Map.of("lat", 55.75 + i * 0.01, "lon", 37.61),
+                    "paid", false,
+                    "participantLimit", 10,
+                    "requestModeration", true,
+                    "title", "event " + i));
+            perform(patch("/admin/events/{eventId}", eventId), Map.of("stateAction", "PUBLISH_EVENT"), status().isOk());
+            eventIds.add(eventId);
+        }
+        for (Long eventId : eventIds) {
+            for (Long userId : userIds.subList(1, USERS)) {
+                perform(post("/events/{eventId}/comment/{userId}", eventId, userId), Map.of("text", "comment"),
+                        status().isCreated());
+            }
+        }
+        for (Long userId : userIds.subList(2, USERS)) {
+            for (Long eventId : eventIds.subList(0, 2)) {
+                requestIds.add(id(post("/users/{userId}/requests", userId).param("eventId", eventId.toString()), null));
+            }
+        }
+        compilationId = id(post("/admin/compilations"), Map.of("pinned", true, "title", "compilation"));
+        perform(patch("/admin/compilations/{compId}", compilationId), Map.of("events", eventIds), status().isOk());
+        Long secondCompilationId = id(post("/admin/compilations"), Map.of("pinned", false,
+                "title", "second compilation"));
+        perform(patch("/admin/compilations/{compId}", secondCompilationId), Map.of("events", eventIds.subList(0, 3)),
+                status().isOk());
+    }
+
+    @Test
+    void findCategories() throws Exception {
+        perform(get("/categories").param("size", "10"), null, status().isOk())
+                .andExpect(jsonPath("$", hasSize(CATEGORIES)));
+        perform(get("/categories/{catId}", categoryIds.get(0)), null, status().isOk());
+    }
+
+    @Test
+    void findEvents() throws Exception {
+        for (String sort : List.of("EVENT_DATE", "VIEWS", "MOST_COMMENTS")) {
+            perform(get("/events").param("sort", sort).param("size", "10"), null, status().isOk())
+                    .andExpect(jsonPath("$", hasSize(EVENTS)));
+        }
+        perform(get("/events").param("text", "description").param("categories",
+                        categoryIds.get(0).toString(), categoryIds.get(1).toString()).param("size", "10"), null,
+                status().isOk())
+                .andExpect(jsonPath("$.length()", greaterThan(1)));
+        perform(get("/events").param("lat", "55.75").param("lon", "37.61").param("radius", "50")
+                .param("size", "10"), null, status().isOk())
+                .andExpect(jsonPath("$", hasSize(EVENTS)));
+    }
+
+    @Test
+    void findTrendingEvents() throws Exception {
+        when(statClient.getTrendingUris(any(Duration.class), anyInt(), anyString())).thenReturn(eventIds.stream()
+                .map(eventId -> new TrendingUriDto("/events/" + eventId, 10L, 5L, 5L))
+                .collect(Collectors.toList()));
+        perform(get("/events/trending").param("size", "10"), null, status().isOk())
+                .andExpect(jsonPath("$", hasSize(EVENTS)));
+    }
+
+    @Test
+    void getFullEventInfoById() throws Exception {
+        perform(get("/events/{id}", eventIds.get(0)), null, status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(USERS - 1)));
+    }
+
+    @Test
+    void findEventComments() throws Exception {
+        perform(get("/events/{id}/comments", eventIds.get(0)).param("size", "10"), null, status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(USERS - 1)));
+    }
+
+    @Test
+    void getFullEventsInfoByAdmin() throws Exception {
+        perform(get("/admin/events").param("size", "10"), null, status().isOk())
+                .andExpect(jsonPath("$", hasSize(EVENTS)));
+    }
+
+    @Test
+    void findEventsFromUser() throws Exception {
+        perform(get("/users/{userId}/events", userIds.get(0)).param("size", "10"), null, status().isOk())
+                .andExpect(jsonPath("$", hasSize(EVENTS / 2)));
+        perform(get("/users/{userId}/events/{eventId}", userIds.get(0), eventIds.get(0)), null, status().isOk());
+    }
+
+    @Test
+    void findParticipationRequests() throws Exception {
+        perform(get("/users/{userId}/events/{eventId}/requests", userIds.get(0), eventIds.get(0)), null,
+                status().isOk())
+                .andExpect(jsonPath("$", hasSize(USERS - 2)));
+        perform(get("/users/{userId}/requests", userIds.get(2)), null, status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void changeParticipationRequestStatus() throws Exception {
+        List<Long> secondEventRequests = List.of(requestIds.get(1), requestIds.get(3));
+        perform(patch("/users/{userId}/events/{eventId}/requests", userIds.get(1), eventIds.get(1)),
+                Map.of("requestIds", secondEventRequests, "status", "CONFIRMED"), status().isOk())
+                .andExpect(jsonPath("$.confirmedRequests", hasSize(secondEventRequests.size())));
+    }
+
+    @Test
+    void findCompilations() throws Exception {
+        perform(get("/compilations").param("size", "10"), null, status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].events.length()", hasItems(EVENTS, 3)));
+        perform(get("/compilations/{compId}", compilationId), null, status().isOk())
+                .andExpect(jsonPath("$.events", hasSize(EVENTS)));
+    }
+
+    private Long id(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        String response = perform(request, body, status().isCreated()).andReturn().getResponse().getContentAsString();
+        JsonNode json = objectMapper.readTree(response);
+        return json.get("id").asLong();
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, Object body, ResultMatcher expectedStatus)
+            throws Exception {
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+        }
+        return mockMvc.perform(request).andExpect(expectedStatus);
+    }
+}
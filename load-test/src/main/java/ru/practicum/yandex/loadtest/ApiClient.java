@@ -0,0 +1,125 @@
+package ru.practicum.yandex.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP-клиент ewm-service. Каждый запрос замеряется и учитывается в {@link LatencyRecorder} под именем эндпоинта,
+ * если регистратор передан.
+ */
+public class ApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+
+    private final String baseUrl;
+
+    public ApiClient(String baseUrl, int threads) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "load-test-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    public Response get(String path, LatencyRecorder recorder, String endpoint) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(), recorder, endpoint);
+    }
+
+    public Response post(String path, Object body, LatencyRecorder recorder, String endpoint) {
+        return send(withBody(path, "POST", body), recorder, endpoint);
+    }
+
+    public Response patch(String path, Object body, LatencyRecorder recorder, String endpoint) {
+        return send(withBody(path, "PATCH", body), recorder, endpoint);
+    }
+
+    private HttpRequest.Builder withBody(String path, String method, Object body) {
+        HttpRequest.BodyPublisher publisher;
+        try {
+            publisher = body == null ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, publisher);
+    }
+
+    private Response send(HttpRequest.Builder builder, LatencyRecorder recorder, String endpoint) {
+        HttpRequest request = builder.timeout(REQUEST_TIMEOUT).build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            if (recorder != null) {
+                recorder.record(endpoint, elapsed, response.statusCode() >= 500);
+            }
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            if (recorder != null) {
+                recorder.record(endpoint, System.nanoTime() - start, true);
+            }
+            return new Response(-1, new byte[0]);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Ответ сервиса. Код -1 означает ошибку соединения или таймаут.
+     */
+    public class Response {
+
+        private final int status;
+
+        private final byte[] body;
+
+        Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+
+        public JsonNode json() {
+            try {
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public long id() {
+            if (!isSuccessful()) {
+                throw new IllegalStateException("Неожиданный ответ сервиса: " + status + " " + new String(body));
+            }
+            return json().get("id").asLong();
+        }
+    }
+}
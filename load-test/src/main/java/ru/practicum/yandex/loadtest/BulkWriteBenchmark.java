@@ -0,0 +1,188 @@
+package ru.practicum.yandex.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Замер массовых операций записи ewm-service: привязка {@code bulk-size} событий к подборке одним запросом
+ * PATCH /admin/compilations/{compId} и подтверждение {@code bulk-size} заявок на участие одним запросом
+ * PATCH /users/{userId}/events/{eventId}/requests. Каждая операция выполняется на свежих данных: новая подборка
+ * и новое событие с новыми заявками в каждом раунде. Первые {@code bulk-warmup-rounds} раундов прогревают сервис
+ * и не замеряются, в отчет попадают задержки следующих {@code bulk-rounds} раундов. Подготовка данных раунда
+ * не замеряется, поэтому в отчете значимы задержки, а не пропускная способность.
+ * <p>
+ * С базой данных в памяти процесса обращение к базе данных почти ничего не стоит, поэтому замер выполняется с
+ * {@code -Dloadtest.database=tcp}. Сравнение со сборкой, в которой идентификаторы выдаются столбцами IDENTITY:
+ * <pre>
+ * git worktree add ../ewm-identity &lt;коммит до перехода на последовательности&gt;
+ * (cd ../ewm-identity &amp;&amp; mvn -B package -DskipTests)
+ * mvn -B package -DskipTests
+ * java -Dloadtest.database=tcp -Dloadtest.report=load-test/target/bulk-write-identity.json \
+ *      -Dloadtest.ewm-jar=../ewm-identity/ewm-service/target/ewm-service-0.0.1-SNAPSHOT.jar \
+ *      -Dloadtest.stat-jar=../ewm-identity/stats/stat-server/target/stat-server-0.0.1-SNAPSHOT.jar \
+ *      -cp load-test/target/load-test.jar ru.practicum.yandex.loadtest.BulkWriteBenchmark
+ * java -Dloadtest.database=tcp -Dloadtest.report=load-test/target/bulk-write.json \
+ *      -Dloadtest.baseline=load-test/target/bulk-write-identity.json \
+ *      -cp load-test/target/load-test.jar ru.practicum.yandex.loadtest.BulkWriteBenchmark
+ * </pre>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BulkWriteBenchmark {
+
+    static final String COMPILATION_ENDPOINT = "PATCH /admin/compilations/{compId}";
+
+    static final String CONFIRMATION_ENDPOINT = "PATCH /users/{userId}/events/{eventId}/requests";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ApiClient api;
+
+    private final LoadTestSettings settings;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = new LoadTestSettings();
+        try (H2Database database = H2Database.start(settings);
+             ServiceProcess statServer = ServiceProcess.start("stat-server", settings.getStatJar(),
+                     settings.getStatPort(), database.url("stats"), settings.getStatArgs(), settings.getLogDir(),
+                     "/actuator/health");
+             ServiceProcess ewmService = ServiceProcess.start("ewm-service", settings.getEwmJar(),
+                     settings.getEwmPort(), database.url("ewm"), "--stat-server.url=http://localhost:" +
+                             settings.getStatPort() + " " + settings.getEwmArgs(), settings.getLogDir(), "/categories")) {
+            ApiClient api = new ApiClient("http://localhost:" + settings.getEwmPort(), settings.getSeedThreads());
+            LatencyRecorder recorder = new BulkWriteBenchmark(api, settings).run();
+
+            LatencyReport report = new LatencyReport(recorder, settings);
+            report.write(settings.getReport());
+            System.out.println();
+            System.out.print(report.format(settings.getBaseline()));
+            log.info("Отчет сохранен в {}.", settings.getReport().toAbsolutePath());
+        }
+    }
+
+    /**
+     * Подготовка данных и выполнение раундов.
+     *
+     * @return задержки замеренных раундов
+     */
+    public LatencyRecorder run() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getSeedThreads());
+        try {
+            int size = settings.getBulkSize();
+            long ownerId = api.post("/admin/users", Map.of("name", "bulk owner", "email", "bulk-owner@loadtest.ru"),
+                    null, null).id();
+            long categoryId = api.post("/admin/categories", Map.of("name", "bulk category"), null, null).id();
+            List<Long> requesterIds = ids(sendAll(executor, size, i -> () -> api.post("/admin/users",
+                    Map.of("name", "bulk user " + i, "email", "bulk-user" + i + "@loadtest.ru"), null, null)));
+            List<Long> eventIds = ids(sendAll(executor, size, i -> () -> api.post("/users/" + ownerId + "/events",
+                    newEvent(categoryId, "bulk event " + i, i, 0), null, null)));
+            log.info("Данные подготовлены: {} пользователей и {} событий.", requesterIds.size(), eventIds.size());
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            int rounds = settings.getBulkWarmupRounds() + settings.getBulkRounds();
+            for (int round = 0; round < rounds; round++) {
+                LatencyRecorder roundRecorder = round < settings.getBulkWarmupRounds() ? null : recorder;
+                updateCompilation(round, eventIds, roundRecorder);
+                confirmRequests(executor, round, ownerId, categoryId, requesterIds, roundRecorder);
+                log.info("Раунд {} из {} выполнен.", round + 1, rounds);
+            }
+            return recorder;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void updateCompilation(int round, List<Long> eventIds, LatencyRecorder recorder) {
+        long compilationId = api.post("/admin/compilations", Map.of("pinned", false, "title", "bulk compilation " + round),
+                null, null).id();
+        ApiClient.Response response = api.patch("/admin/compilations/" + compilationId, Map.of("events", eventIds),
+                recorder, COMPILATION_ENDPOINT);
+        int events = response.isSuccessful() ? response.json().get("events").size() : -1;
+        if (events != eventIds.size()) {
+            throw new IllegalStateException("Подборка с id '" + compilationId + "' не обновлена: код " +
+                    response.getStatus() + ", событий в подборке: " + events + ".");
+        }
+    }
+
+    private void confirmRequests(ExecutorService executor, int round, long ownerId, long categoryId,
+                                 List<Long> requesterIds, LatencyRecorder recorder) throws InterruptedException {
+        long eventId = api.post("/users/" + ownerId + "/events",
+                newEvent(categoryId, "bulk confirmation " + round, requesterIds.size() + round, requesterIds.size()),
+                null, null).id();
+        ApiClient.Response published = api.patch("/admin/events/" + eventId, Map.of("stateAction", "PUBLISH_EVENT"),
+                null, null);
+        if (!published.isSuccessful()) {
+            throw new IllegalStateException("Событие с id '" + eventId + "' не опубликовано: код " +
+                    published.getStatus() + ".");
+        }
+        List<Long> requestIds = ids(sendAll(executor, requesterIds.size(), i -> () -> api.post(
+                "/users/" + requesterIds.get(i) + "/requests?eventId=" + eventId, null, null, null)));
+        ApiClient.Response response = api.patch("/users/" + ownerId + "/events/" + eventId + "/requests",
+                Map.of("requestIds", requestIds, "status", "CONFIRMED"), recorder, CONFIRMATION_ENDPOINT);
+        int confirmed = response.isSuccessful() ? response.json().get("confirmedRequests").size() : -1;
+        if (confirmed != requestIds.size()) {
+            throw new IllegalStateException("Заявки на участие в событии с id '" + eventId + "' не подтверждены: код " +
+                    response.getStatus() + ", подтверждено: " + confirmed + ".");
+        }
+    }
+
+    /**
+     * Данные нового события. Места проведения событий должны различаться, поэтому место вычисляется по номеру
+     * события.
+     */
+    private static Map<String, Object> newEvent(long categoryId, String title, int index, int participantLimit) {
+        return Map.of(
+                "annotation", "Массовые операции записи: " + title,
+                "category", categoryId,
+                "description", "Событие для замера массовых операций записи: " + title,
+                "eventDate", LocalDateTime.now().plusDays(7).format(DATE_FORMAT),
+                "title", title,
+                "location", Map.of("lat", 40 + index / 1000 * 0.01, "lon", 30 + index % 1000 * 0.01),
+                "paid", false,
+                "participantLimit", participantLimit,
+                "requestModeration", true);
+    }
+
+    /**
+     * Параллельная отправка запросов подготовки данных. Любой ответ, кроме успешного, прерывает замер.
+     *
+     * @param count   количество запросов
+     * @param request запрос по порядковому номеру
+     * @return ответы в порядке номеров
+     */
+    private static List<ApiClient.Response> sendAll(ExecutorService executor, int count,
+                                                    IntFunction<Callable<ApiClient.Response>> request)
+            throws InterruptedException {
+        List<Future<ApiClient.Response>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(executor.submit(request.apply(i)));
+        }
+        List<ApiClient.Response> responses = new ArrayList<>(count);
+        for (Future<ApiClient.Response> future : futures) {
+            try {
+                responses.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка подготовки данных.", e.getCause());
+            }
+        }
+        return responses;
+    }
+
+    private static List<Long> ids(List<ApiClient.Response> responses) {
+        List<Long> ids = new ArrayList<>(responses.size());
+        responses.forEach(response -> ids.add(response.id()));
+        return ids;
+    }
+}
@@ -0,0 +1,182 @@
+package ru.practicum.yandex.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Наполнение ewm-service данными через его API: пользователи, категории, события (большая часть опубликована),
+ * комментарии, заявки на участие и подборки. Содержимое запросов генерируется последовательно из одного генератора
+ * случайных чисел с заданным зерном, а отправляются запросы параллельно.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DataSeeder {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final double PUBLISHED_SHARE = 0.9;
+
+    private final ApiClient api;
+
+    private final LoadTestSettings settings;
+
+    public SeedData seed() throws InterruptedException {
+        Random random = new Random(settings.getSeed());
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getSeedThreads());
+        try {
+            List<Long> userIds = create(executor, "пользователи", settings.getUsers(), i -> () -> api.post(
+                    "/admin/users", Map.of("name", "user " + i, "email", "user" + i + "@loadtest.ru"), null, null));
+            List<Long> categoryIds = create(executor, "категории", settings.getCategories(), i -> () -> api.post(
+                    "/admin/categories", Map.of("name", "category " + i), null, null));
+
+            List<Map<String, Object>> newEvents = new ArrayList<>();
+            List<Long> initiators = new ArrayList<>();
+            for (int i = 0; i < settings.getEvents(); i++) {
+                initiators.add(pick(userIds, random));
+                newEvents.add(newEvent(i, pick(categoryIds, random), random));
+            }
+            List<Long> eventIds = create(executor, "события", settings.getEvents(), i -> () -> api.post(
+                    "/users/" + initiators.get(i) + "/events", newEvents.get(i), null, null));
+
+            List<Long> publishedEventIds = new ArrayList<>();
+            List<Long> hotEventIds = new ArrayList<>();
+            for (int i = 0; i < eventIds.size(); i++) {
+                if (random.nextDouble() < PUBLISHED_SHARE) {
+                    publishedEventIds.add(eventIds.get(i));
+                    Map<String, Object> event = newEvents.get(i);
+                    if ((int) event.get("participantLimit") > 0 && !(boolean) event.get("requestModeration")) {
+                        hotEventIds.add(eventIds.get(i));
+                    }
+                }
+            }
+            create(executor, "публикация событий", publishedEventIds.size(), i -> () -> api.patch(
+                    "/admin/events/" + publishedEventIds.get(i), Map.of("stateAction", "PUBLISH_EVENT"), null, null));
+
+            List<String> commentPaths = new ArrayList<>();
+            List<String> commentTexts = new ArrayList<>();
+            for (int i = 0; i < settings.getComments(); i++) {
+                commentPaths.add("/events/" + pick(publishedEventIds, random) + "/comment/" + pick(userIds, random));
+                commentTexts.add(Texts.words(random, 3, 30));
+            }
+            send(executor, "комментарии", settings.getComments(), i -> () -> api.post(
+                    commentPaths.get(i), Map.of("text", commentTexts.get(i)), null, null));
+
+            List<String> requestPaths = new ArrayList<>();
+            for (int i = 0; i < settings.getParticipations(); i++) {
+                requestPaths.add("/users/" + pick(userIds, random) + "/requests?eventId=" + pick(publishedEventIds, random));
+            }
+            send(executor, "заявки на участие", settings.getParticipations(), i -> () -> api.post(
+                    requestPaths.get(i), null, null, null));
+
+            List<Map<String, Object>> compilations = new ArrayList<>();
+            for (int i = 0; i < settings.getCompilations(); i++) {
+                List<Long> events = new ArrayList<>();
+                int size = random.nextInt(21);
+                for (int j = 0; j < size; j++) {
+                    events.add(pick(publishedEventIds, random));
+                }
+                Map<String, Object> compilation = new HashMap<>();
+                compilation.put("events", events.stream().distinct().toArray());
+                compilation.put("pinned", random.nextDouble() < 0.2);
+                compilation.put("title", "compilation " + i);
+                compilations.add(compilation);
+            }
+            create(executor, "подборки", settings.getCompilations(), i -> () -> api.post(
+                    "/admin/compilations", compilations.get(i), null, null));
+
+            return SeedData.builder()
+                    .userIds(userIds)
+                    .categoryIds(categoryIds)
+                    .publishedEventIds(publishedEventIds)
+                    .hotEventIds(hotEventIds)
+                    .build();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, Object> newEvent(int index, long categoryId, Random random) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("annotation", Texts.words(random, 6, 20));
+        event.put("category", categoryId);
+        event.put("description", Texts.words(random, 20, 80));
+        event.put("eventDate", LocalDateTime.now().plusHours(3).plusMinutes(random.nextInt(180 * 24 * 60))
+                .format(DATE_FORMAT));
+        event.put("title", Texts.words(random, 1, 4) + " #" + index);
+        event.put("location", Map.of("lat", 40 + random.nextDouble() * 20, "lon", 30 + random.nextDouble() * 30));
+        event.put("paid", random.nextDouble() < 0.3);
+        event.put("participantLimit", random.nextDouble() < 0.4 ? 0 : 10 + random.nextInt(291));
+        event.put("requestModeration", random.nextBoolean());
+        return event;
+    }
+
+    /**
+     * Создание сущностей этапа наполнения. Любой ответ, кроме успешного, прерывает наполнение.
+     *
+     * @param stage   название этапа для журнала
+     * @param count   количество запросов
+     * @param request запрос по порядковому номеру
+     * @return идентификаторы созданных сущностей в порядке номеров
+     */
+    private List<Long> create(ExecutorService executor, String stage, int count,
+                              IntFunction<Callable<ApiClient.Response>> request) throws InterruptedException {
+        List<Long> ids = new ArrayList<>(count);
+        for (ApiClient.Response response : send(executor, stage, count, request)) {
+            ids.add(response.id());
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    /**
+     * Параллельная отправка запросов этапа наполнения. Отказы сервиса с кодом 4xx допустимы (например, повторная
+     * заявка на участие или исчерпанный лимит участников), ошибки 5xx и ошибки соединения прерывают наполнение.
+     *
+     * @param stage   название этапа для журнала
+     * @param count   количество запросов
+     * @param request запрос по порядковому номеру
+     * @return ответы в порядке номеров
+     */
+    private List<ApiClient.Response> send(ExecutorService executor, String stage, int count,
+                                          IntFunction<Callable<ApiClient.Response>> request) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Future<ApiClient.Response>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(executor.submit(request.apply(i)));
+        }
+        List<ApiClient.Response> responses = new ArrayList<>(count);
+        for (Future<ApiClient.Response> future : futures) {
+            try {
+                responses.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка на этапе наполнения '" + stage + "'.", e.getCause());
+            }
+        }
+        long failed = responses.stream().filter(response -> response.getStatus() >= 500 || response.getStatus() < 0).count();
+        if (failed > 0) {
+            throw new IllegalStateException("Ошибки сервиса на этапе наполнения '" + stage + "': " + failed + ".");
+        }
+        long rejected = responses.stream().filter(response -> !response.isSuccessful()).count();
+        log.info("Наполнение '{}': {} запросов за {} мс, отклонено сервисом: {}.", stage, count,
+                (System.nanoTime() - start) / 1_000_000, rejected);
+        return responses;
+    }
+
+    private static long pick(List<Long> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
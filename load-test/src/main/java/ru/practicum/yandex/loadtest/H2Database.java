@@ -0,0 +1,59 @@
+package ru.practicum.yandex.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.h2.tools.Server;
+
+import java.sql.SQLException;
+
+/**
+ * Базы данных H2 для запускаемых сервисов. В режиме {@code mem} каждый сервис держит базу данных в памяти своего
+ * процесса, и обращение к ней не стоит сетевого обмена. В режиме {@code tcp} базы данных в памяти обслуживает
+ * TCP-сервер H2 в процессе нагрузочного теста: каждый запрос к базе данных проходит через сокет, поэтому количество
+ * обращений к базе данных сказывается на задержке так же, как с сетевой базой данных.
+ */
+@Slf4j
+public class H2Database implements AutoCloseable {
+
+    private static final String MODE = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE";
+
+    private final Server server;
+
+    private H2Database(Server server) {
+        this.server = server;
+    }
+
+    public static H2Database start(LoadTestSettings settings) throws SQLException {
+        switch (settings.getDatabase()) {
+            case "mem":
+                return new H2Database(null);
+            case "tcp":
+                Server server = Server.createTcpServer("-tcpPort", String.valueOf(settings.getDatabasePort()),
+                        "-ifNotExists").start();
+                log.info("TCP-сервер H2 запущен на порту {}.", server.getPort());
+                return new H2Database(server);
+            default:
+                throw new IllegalArgumentException("Неизвестный режим базы данных: '" + settings.getDatabase() +
+                        "'. Допустимые значения: mem, tcp.");
+        }
+    }
+
+    /**
+     * Адрес базы данных для сервиса.
+     *
+     * @param name имя базы данных
+     * @return JDBC URL
+     */
+    public String url(String name) {
+        if (server == null) {
+            return "jdbc:h2:mem:" + name + MODE;
+        }
+        return "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + name + MODE + ";DB_CLOSE_DELAY=-1";
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+}
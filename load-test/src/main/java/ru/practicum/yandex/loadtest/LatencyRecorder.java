@@ -0,0 +1,53 @@
+package ru.practicum.yandex.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Распределение задержек и количество ошибок по эндпоинтам. Задержки хранятся в HdrHistogram в микросекундах
+ * с точностью до трех значащих цифр.
+ */
+public class LatencyRecorder {
+
+    private final ConcurrentMap<String, EndpointLatency> endpoints = new ConcurrentHashMap<>();
+
+    private final long startedAt = System.nanoTime();
+
+    public void record(String endpoint, long elapsedNanos, boolean error) {
+        EndpointLatency latency = endpoints.computeIfAbsent(endpoint, name -> new EndpointLatency());
+        latency.histogram.recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), 1));
+        if (error) {
+            latency.errors.increment();
+        }
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startedAt;
+    }
+
+    public Map<String, EndpointLatency> snapshot() {
+        return new TreeMap<>(endpoints);
+    }
+
+    public static class EndpointLatency {
+
+        private final Histogram histogram = new ConcurrentHistogram(3);
+
+        private final LongAdder errors = new LongAdder();
+
+        public Histogram getHistogram() {
+            return histogram;
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+    }
+}
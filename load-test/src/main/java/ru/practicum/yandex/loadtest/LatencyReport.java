@@ -0,0 +1,118 @@
+package ru.practicum.yandex.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отчет нагрузочного теста: пропускная способность и p50/p99/p99.9 задержки по эндпоинтам. Отчет выводится таблицей
+ * и сохраняется в JSON; если указан отчет базового прогона, в таблице выводится изменение p99 и пропускной
+ * способности относительно него.
+ */
+public class LatencyReport {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Report report;
+
+    public LatencyReport(LatencyRecorder recorder, LoadTestSettings settings) {
+        double seconds = recorder.elapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        List<EndpointReport> endpoints = new ArrayList<>();
+        recorder.snapshot().forEach((name, latency) -> {
+            Histogram histogram = latency.getHistogram();
+            endpoints.add(new EndpointReport(name, histogram.getTotalCount(), latency.getErrors(),
+                    histogram.getTotalCount() / seconds, millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        });
+        this.report = new Report(Instant.now().toString(), settings.getThreads(), settings.getEvents(), seconds, endpoints);
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        objectMapper.writeValue(file.toFile(), report);
+    }
+
+    public String format(String baselineFile) throws IOException {
+        Map<String, JsonNode> baseline = new HashMap<>();
+        if (!baselineFile.isBlank()) {
+            objectMapper.readTree(Path.of(baselineFile).toFile()).get("endpoints")
+                    .forEach(endpoint -> baseline.put(endpoint.get("endpoint").asText(), endpoint));
+        }
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-42s %9s %7s %9s %9s %9s %9s %9s%s%n", "endpoint", "requests", "errors",
+                "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", baseline.isEmpty() ? "" : "   Δp99     Δreq/s"));
+        for (EndpointReport endpoint : report.getEndpoints()) {
+            table.append(String.format("%-42s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f", endpoint.getEndpoint(),
+                    endpoint.getRequests(), endpoint.getErrors(), endpoint.getThroughput(), endpoint.getP50Ms(),
+                    endpoint.getP99Ms(), endpoint.getP999Ms(), endpoint.getMaxMs()));
+            JsonNode base = baseline.get(endpoint.getEndpoint());
+            if (base != null) {
+                table.append(String.format(" %+8.1f%% %+9.1f%%", change(endpoint.getP99Ms(), base.get("p99Ms").asDouble()),
+                        change(endpoint.getThroughput(), base.get("throughput").asDouble())));
+            }
+            table.append(System.lineSeparator());
+        }
+        return table.toString();
+    }
+
+    private static double change(double value, double base) {
+        return base == 0 ? 0 : (value - base) / base * 100;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class Report {
+
+        private String finishedAt;
+
+        private int threads;
+
+        private int events;
+
+        private double durationSeconds;
+
+        private List<EndpointReport> endpoints;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class EndpointReport {
+
+        private String endpoint;
+
+        private long requests;
+
+        private long errors;
+
+        private double throughput;
+
+        private double p50Ms;
+
+        private double p99Ms;
+
+        private double p999Ms;
+
+        private double maxMs;
+    }
+}
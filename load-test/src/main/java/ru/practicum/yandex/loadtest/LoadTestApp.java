@@ -0,0 +1,48 @@
+package ru.practicum.yandex.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Нагрузочный тест публичных эндпоинтов ewm-service. Запускает stat-server и ewm-service отдельными процессами
+ * поверх баз данных H2 в памяти, наполняет ewm-service данными через API, прогревает сервисы смешанной нагрузкой
+ * и выводит пропускную способность и задержки по эндпоинтам за время измерения. Отчет сохраняется в JSON и может
+ * использоваться как базовый для следующих прогонов ({@code -Dloadtest.baseline=<файл>}).
+ * <p>
+ * Запуск из корня репозитория:
+ * <pre>
+ * mvn -B package -DskipTests
+ * java -Dloadtest.events=20000 -Dloadtest.duration-seconds=120 -jar load-test/target/load-test.jar
+ * </pre>
+ * Остальные параметры описаны в {@link LoadTestSettings}. Замер массовых операций записи выполняется отдельно,
+ * см. {@link BulkWriteBenchmark}.
+ */
+@Slf4j
+public class LoadTestApp {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = new LoadTestSettings();
+        try (H2Database database = H2Database.start(settings);
+             ServiceProcess statServer = ServiceProcess.start("stat-server", settings.getStatJar(),
+                     settings.getStatPort(), database.url("stats"), settings.getStatArgs(), settings.getLogDir(),
+                     "/actuator/health");
+             ServiceProcess ewmService = ServiceProcess.start("ewm-service", settings.getEwmJar(),
+                     settings.getEwmPort(), database.url("ewm"), "--stat-server.url=http://localhost:" +
+                             settings.getStatPort() + " " + settings.getEwmArgs(), settings.getLogDir(), "/categories")) {
+            ApiClient api = new ApiClient("http://localhost:" + settings.getEwmPort(),
+                    Math.max(settings.getThreads(), settings.getSeedThreads()) + settings.getBurstSize());
+            SeedData data = new DataSeeder(api, settings).seed();
+            TrafficDriver driver = new TrafficDriver(api, settings, data);
+
+            log.info("Прогрев: {} с.", settings.getWarmupSeconds());
+            driver.run(settings.getWarmupSeconds());
+            log.info("Измерение: {} с, потоков нагрузки: {}.", settings.getDurationSeconds(), settings.getThreads());
+            LatencyRecorder recorder = driver.run(settings.getDurationSeconds());
+
+            LatencyReport report = new LatencyReport(recorder, settings);
+            report.write(settings.getReport());
+            System.out.println();
+            System.out.print(report.format(settings.getBaseline()));
+            log.info("Отчет сохранен в {}.", settings.getReport().toAbsolutePath());
+        }
+    }
+}
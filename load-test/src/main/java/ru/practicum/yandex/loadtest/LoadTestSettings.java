@@ -0,0 +1,78 @@
+package ru.practicum.yandex.loadtest;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * Параметры нагрузочного теста. Значения задаются системными свойствами {@code -Dloadtest.<имя>=<значение>}.
+ */
+@Getter
+public class LoadTestSettings {
+
+    private final Path ewmJar = Path.of(property("ewm-jar", "ewm-service/target/ewm-service-0.0.1-SNAPSHOT.jar"));
+
+    private final Path statJar = Path.of(property("stat-jar",
+            "stats/stat-server/target/stat-server-0.0.1-SNAPSHOT-exec.jar"));
+
+    private final String ewmArgs = property("ewm-args", "");
+
+    private final String statArgs = property("stat-args", "");
+
+    private final int ewmPort = intProperty("ewm-port", 18080);
+
+    private final int statPort = intProperty("stat-port", 19090);
+
+    private final Path logDir = Path.of(property("log-dir", "load-test/target/logs"));
+
+    /**
+     * Режим баз данных сервисов: {@code mem} или {@code tcp}, см. {@link H2Database}.
+     */
+    private final String database = property("database", "mem");
+
+    private final int databasePort = intProperty("database-port", 19092);
+
+    private final long seed = Long.parseLong(property("seed", "42"));
+
+    private final int users = intProperty("users", 2_000);
+
+    private final int categories = intProperty("categories", 50);
+
+    private final int events = intProperty("events", 20_000);
+
+    private final int comments = intProperty("comments", 60_000);
+
+    private final int participations = intProperty("participations", 40_000);
+
+    private final int compilations = intProperty("compilations", 200);
+
+    private final int seedThreads = intProperty("seed-threads", 16);
+
+    private final int threads = intProperty("threads", 32);
+
+    private final int warmupSeconds = intProperty("warmup-seconds", 30);
+
+    private final int durationSeconds = intProperty("duration-seconds", 120);
+
+    private final int burstSize = intProperty("burst-size", 200);
+
+    private final int burstIntervalMs = intProperty("burst-interval-ms", 5_000);
+
+    private final int bulkSize = intProperty("bulk-size", 500);
+
+    private final int bulkWarmupRounds = intProperty("bulk-warmup-rounds", 5);
+
+    private final int bulkRounds = intProperty("bulk-rounds", 20);
+
+    private final Path report = Path.of(property("report", "load-test/target/load-test-report.json"));
+
+    private final String baseline = property("baseline", "");
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(property(name, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.yandex.loadtest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Виды запросов смешанной нагрузки и их доли. Имя вида запроса используется как имя эндпоинта в отчете.
+ */
+enum Scenario {
+
+    EVENTS_TEXT("GET /events?text", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            return eventsPage(random) + "&text=" + encode(Texts.word(random));
+        }
+    },
+    EVENTS_CATEGORIES("GET /events?categories", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            return eventsPage(random) + "&categories=" + randomId(data.getCategoryIds(), random) +
+                    "&categories=" + randomId(data.getCategoryIds(), random);
+        }
+    },
+    EVENTS_PAID("GET /events?paid", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            return eventsPage(random) + "&paid=" + random.nextBoolean();
+        }
+    },
+    EVENTS_DATE_RANGE("GET /events?rangeStart&rangeEnd", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            LocalDateTime start = LocalDateTime.now().plusDays(random.nextInt(150));
+            return eventsPage(random) + "&rangeStart=" + encode(start.format(DATE_FORMAT)) +
+                    "&rangeEnd=" + encode(start.plusDays(30).format(DATE_FORMAT));
+        }
+    },
+    EVENTS_ONLY_AVAILABLE("GET /events?onlyAvailable", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            return eventsPage(random) + "&onlyAvailable=true";
+        }
+    },
+    EVENTS_LOCATION("GET /events?lat&lon&radius", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            return eventsPage(random) + "&lat=" + (40 + random.nextDouble() * 20) +
+                    "&lon=" + (30 + random.nextDouble() * 30) + "&radius=" + (10 + random.nextInt(190));
+        }
+    },
+    EVENTS_SORT_EVENT_DATE("GET /events?sort=EVENT_DATE", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            return eventsPage(random) + "&sort=EVENT_DATE";
+        }
+    },
+    EVENTS_SORT_VIEWS("GET /events?sort=VIEWS", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            return eventsPage(random) + "&sort=VIEWS";
+        }
+    },
+    EVENTS_SORT_MOST_COMMENTS("GET /events?sort=MOST_COMMENTS", 5) {
+        @Override
+        String path(Random random, SeedData data) {
+            return eventsPage(random) + "&sort=MOST_COMMENTS";
+        }
+    },
+    EVENT_BY_ID("GET /events/{id}", 40) {
+        @Override
+        String path(Random random, SeedData data) {
+            return "/events/" + randomId(data.getPublishedEventIds(), random);
+        }
+    },
+    COMPILATIONS("GET /compilations", 15) {
+        @Override
+        String path(Random random, SeedData data) {
+            return "/compilations?pinned=" + random.nextBoolean() + "&from=" + random.nextInt(5) * 10 + "&size=10";
+        }
+    };
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final int TOTAL_WEIGHT = List.of(values()).stream().mapToInt(Scenario::getWeight).sum();
+
+    private final String endpoint;
+
+    private final int weight;
+
+    Scenario(String endpoint, int weight) {
+        this.endpoint = endpoint;
+        this.weight = weight;
+    }
+
+    abstract String path(Random random, SeedData data);
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    static Scenario pick(Random random) {
+        int point = random.nextInt(TOTAL_WEIGHT);
+        for (Scenario scenario : values()) {
+            point -= scenario.weight;
+            if (point < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static String eventsPage(Random random) {
+        return "/events?from=" + random.nextInt(5) * 10 + "&size=10";
+    }
+
+    private static long randomId(List<Long> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.yandex.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Идентификаторы данных, созданных {@link DataSeeder}, для построения запросов нагрузки.
+ */
+@Getter
+@Builder
+public class SeedData {
+
+    private final List<Long> userIds;
+
+    private final List<Long> categoryIds;
+
+    private final List<Long> publishedEventIds;
+
+    /**
+     * Опубликованные события с лимитом участников и без модерации заявок: на них направляются всплески заявок.
+     */
+    private final List<Long> hotEventIds;
+}
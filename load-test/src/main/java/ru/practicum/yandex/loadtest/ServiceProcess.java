@@ -0,0 +1,120 @@
+package ru.practicum.yandex.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис, запущенный отдельным процессом из исполняемого jar поверх базы данных H2 ({@link H2Database}). Вывод процесса
+ * записывается в файл {@code <имя>.log} в каталоге журналов.
+ */
+@Slf4j
+public class ServiceProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final String name;
+
+    private final Process process;
+
+    private ServiceProcess(String name, Process process) {
+        this.name = name;
+        this.process = process;
+    }
+
+    /**
+     * Запуск сервиса и ожидание готовности: сервис считается готовым, когда {@code healthPath} отвечает без ошибки.
+     *
+     * @param name        имя сервиса и файла журнала
+     * @param jar         исполняемый jar сервиса
+     * @param port        порт сервиса
+     * @param databaseUrl адрес базы данных H2
+     * @param extraArgs   дополнительные аргументы сервиса через пробел
+     * @param logDir      каталог журналов
+     * @param healthPath  путь для проверки готовности
+     * @return запущенный сервис
+     */
+    public static ServiceProcess start(String name, Path jar, int port, String databaseUrl, String extraArgs,
+                                       Path logDir, String healthPath) throws IOException, InterruptedException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Не найден jar сервиса '" + name + "': " + jar.toAbsolutePath() +
+                    ". Соберите проект: mvn -B package -DskipTests.");
+        }
+        Files.createDirectories(logDir);
+        List<String> command = new ArrayList<>(List.of(
+                javaExecutable(), "-jar", jar.toString(),
+                "--server.port=" + port,
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.url=" + databaseUrl,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.sql.init.platform=h2"));
+        if (!extraArgs.isBlank()) {
+            command.addAll(Arrays.asList(extraArgs.trim().split("\\s+")));
+        }
+        Path logFile = logDir.resolve(name + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        ServiceProcess service = new ServiceProcess(name, process);
+        try {
+            service.awaitReady(URI.create("http://localhost:" + port + healthPath));
+        } catch (RuntimeException | IOException | InterruptedException e) {
+            service.close();
+            throw e;
+        }
+        log.info("Сервис '{}' запущен на порту {}, журнал: {}.", name, port, logFile);
+        return service;
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitReady(URI healthUri) throws IOException, InterruptedException {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(healthUri).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Сервис '" + name + "' завершился при запуске с кодом " +
+                        process.exitValue() + ".");
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500) {
+                    return;
+                }
+            } catch (IOException e) {
+                log.debug("Сервис '{}' еще не готов: {}", name, e.getMessage());
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Сервис '" + name + "' не запустился за " + STARTUP_TIMEOUT + ".");
+    }
+
+    private static String javaExecutable() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
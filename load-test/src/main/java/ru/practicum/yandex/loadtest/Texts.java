@@ -0,0 +1,37 @@
+package ru.practicum.yandex.loadtest;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Словарь для генерации названий, аннотаций, описаний и комментариев событий и для поисковых запросов по тексту.
+ */
+final class Texts {
+
+    static final List<String> WORDS = List.of(
+            "концерт", "выставка", "лекция", "мастер-класс", "фестиваль", "спектакль", "экскурсия", "турнир",
+            "квест", "презентация", "ярмарка", "кинопоказ", "марафон", "семинар", "вечеринка", "встреча",
+            "джаз", "рок", "классика", "живопись", "фотография", "архитектура", "история", "наука", "космос",
+            "кулинария", "вино", "кофе", "книги", "поэзия", "театр", "танцы", "йога", "бег", "велосипед",
+            "шахматы", "настольные", "игры", "дети", "семья", "город", "парк", "музей", "галерея", "набережная",
+            "летний", "зимний", "вечерний", "бесплатный", "открытый");
+
+    private Texts() {
+    }
+
+    static String words(Random random, int min, int max) {
+        int count = min + random.nextInt(max - min + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(word(random));
+        }
+        return text.toString();
+    }
+
+    static String word(Random random) {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+}
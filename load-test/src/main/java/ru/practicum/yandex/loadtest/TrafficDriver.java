@@ -0,0 +1,108 @@
+package ru.practicum.yandex.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Смешанная нагрузка на публичные эндпоинты. Потоки нагрузки работают по замкнутой модели: каждый поток отправляет
+ * следующий запрос сразу после ответа на предыдущий, выбирая вид запроса по долям из {@link Scenario}. Параллельно
+ * с заданным интервалом выполняются всплески заявок на участие: {@code burstSize} одновременных заявок разных
+ * пользователей на одно событие с лимитом участников.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TrafficDriver {
+
+    static final String BURST_ENDPOINT = "POST /users/{userId}/requests (burst)";
+
+    private final ApiClient api;
+
+    private final LoadTestSettings settings;
+
+    private final SeedData data;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    /**
+     * Подача нагрузки в течение заданного времени.
+     *
+     * @param seconds длительность в секундах
+     * @return задержки и ошибки по эндпоинтам
+     */
+    public LatencyRecorder run(int seconds) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long runSeed = settings.getSeed() + runs.incrementAndGet() * 1_000_003L;
+        ExecutorService workers = Executors.newFixedThreadPool(settings.getThreads());
+        ExecutorService burstWorkers = Executors.newFixedThreadPool(Math.max(settings.getBurstSize(), 1));
+        ScheduledExecutorService bursts = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Random burstRandom = new Random(runSeed);
+            if (settings.getBurstSize() > 0 && !data.getHotEventIds().isEmpty()) {
+                bursts.scheduleWithFixedDelay(() -> burst(burstWorkers, burstRandom, recorder),
+                        settings.getBurstIntervalMs(), settings.getBurstIntervalMs(), TimeUnit.MILLISECONDS);
+            }
+            CountDownLatch finished = new CountDownLatch(settings.getThreads());
+            for (int i = 0; i < settings.getThreads(); i++) {
+                Random random = new Random(runSeed + i + 1);
+                workers.execute(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            Scenario scenario = Scenario.pick(random);
+                            api.get(scenario.path(random, data), recorder, scenario.getEndpoint());
+                        }
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+            finished.await();
+            return recorder;
+        } finally {
+            bursts.shutdownNow();
+            workers.shutdownNow();
+            burstWorkers.shutdown();
+            burstWorkers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void burst(ExecutorService burstWorkers, Random random, LatencyRecorder recorder) {
+        long eventId = data.getHotEventIds().get(random.nextInt(data.getHotEventIds().size()));
+        List<Long> userIds = new ArrayList<>(data.getUserIds());
+        int size = Math.min(settings.getBurstSize(), userIds.size());
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(size);
+        for (int i = 0; i < size; i++) {
+            Collections.swap(userIds, i, i + random.nextInt(userIds.size() - i));
+            long userId = userIds.get(i);
+            burstWorkers.execute(() -> {
+                try {
+                    start.await();
+                    api.post("/users/" + userId + "/requests?eventId=" + eventId, null, recorder, BURST_ENDPOINT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Всплеск заявок на событие с id '{}' завершен.", eventId);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.yandex.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.yandex.util.DateTimeDecoder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Декодирование дат из параметров запроса {@code /stats}: в виде, в котором их отправляет stat-client (закодированными
+ * для URL), и без кодирования.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeDecoderBenchmark {
+
+    private String encoded = "2024-01-01+12%3A00%3A00";
+
+    private String plain = "2024-01-01 12:00:00";
+
+    @Benchmark
+    public LocalDateTime decodeEncoded() {
+        return DateTimeDecoder.decode(encoded);
+    }
+
+    @Benchmark
+    public LocalDateTime decodePlain() {
+        return DateTimeDecoder.decode(plain);
+    }
+}
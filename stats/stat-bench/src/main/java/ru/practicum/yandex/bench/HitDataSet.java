@@ -0,0 +1,92 @@
+package ru.practicum.yandex.bench;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Синтетический набор хитов: {@link #URI_COUNT} URI событий, около миллиона различных IP-адресов и время хитов,
+ * равномерно распределенное на протяжении года начиная с {@link #START}. Набор генерируется на стороне базы данных
+ * порциями по {@link #CHUNK_SIZE} строк.
+ */
+@Slf4j
+final class HitDataSet {
+
+    static final String APP = "ewm-main-service";
+
+    static final int URI_COUNT = 10_000;
+
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    static final LocalDateTime END = START.plusYears(1);
+
+    private static final long CHUNK_SIZE = 1_000_000;
+
+    private static final long YEAR_MILLIS = 365L * 24 * 60 * 60 * 1000;
+
+    private static final String INSERT_CHUNK = "INSERT INTO endpointhits (app, uri, ip, created) " +
+            "SELECT '" + APP + "', CONCAT('/events/', MOD(n * 7919, " + URI_COUNT + ")), " +
+            "CONCAT('10.', MOD(n, 256), '.', MOD(n / 256, 256), '.', MOD(n / 65536, 16)), " +
+            "DATEADD('MILLISECOND', n * ?, TIMESTAMP '2024-01-01 00:00:00') " +
+            "FROM (SELECT \"X\" AS n FROM SYSTEM_RANGE(?, ?)) AS range";
+
+    private HitDataSet() {
+    }
+
+    /**
+     * Проверка, что база данных уже содержит набор нужного размера и его можно использовать повторно.
+     *
+     * @param url  JDBC URL базы данных
+     * @param hits количество хитов
+     * @return true, если набор уже сгенерирован
+     */
+    static boolean isSeeded(String url, long hits) {
+        try (Connection connection = DriverManager.getConnection(url + ";IFEXISTS=TRUE;DATABASE_TO_LOWER=TRUE", "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM endpointhits")) {
+            return resultSet.next() && resultSet.getLong(1) == hits;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Генерация набора хитов.
+     *
+     * @param jdbcTemplate JdbcTemplate базы данных со свежей схемой
+     * @param hits         количество хитов
+     */
+    static void seed(JdbcTemplate jdbcTemplate, long hits) {
+        long stepMillis = Math.max(YEAR_MILLIS / hits, 1);
+        for (long from = 1; from <= hits; from += CHUNK_SIZE) {
+            long to = Math.min(from + CHUNK_SIZE - 1, hits);
+            jdbcTemplate.update(INSERT_CHUNK, stepMillis, from, to);
+            log.info("Сгенерировано хитов: {} из {}.", to, hits);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * Случайные URI из набора.
+     *
+     * @param count  количество URI
+     * @param random генератор случайных чисел
+     * @return URI
+     */
+    static List<String> randomUris(int count, Random random) {
+        List<String> uris = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uris.add("/events/" + random.nextInt(URI_COUNT));
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.yandex.bench;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Точка входа для запуска бенчмарков сервиса статистики. Принимает те же параметры, что и JMH; если формат
+ * результатов не указан, результаты записываются в JSON в файл {@code jmh-result.json}, чтобы их можно было сравнивать
+ * между релизами.
+ * <p>
+ * Сборка и запуск:
+ * <pre>
+ * mvn -pl stats/stat-bench -am package -DskipTests
+ * java -jar stats/stat-bench/target/benchmarks.jar                              # все бенчмарки
+ * java -jar stats/stat-bench/target/benchmarks.jar StatRepository -p hits=1000000 # один набор данных
+ * </pre>
+ */
+public final class StatBenchmarks {
+
+    private StatBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.addAll(List.of("-rf", "json"));
+            if (!arguments.contains("-rff")) {
+                arguments.addAll(List.of("-rff", "jmh-result.json"));
+            }
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
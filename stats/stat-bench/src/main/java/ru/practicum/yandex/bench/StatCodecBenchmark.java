@@ -0,0 +1,138 @@
+package ru.practicum.yandex.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение затрат на кодирование и декодирование сообщений сервиса статистики в JSON и Smile: пакета хитов
+ * (тело запроса {@code /hit/batch}) и списка статистики (тело ответа {@code /stats}). Размер закодированных сообщений
+ * выводится при подготовке состояния.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatCodecBenchmark {
+
+    private static final TypeReference<List<EndpointHitDto>> HITS_TYPE = new TypeReference<>() {
+    };
+
+    private static final TypeReference<List<ViewStatsDto>> STATS_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"1", "500"})
+    private int size;
+
+    private ObjectMapper jsonMapper;
+
+    private ObjectMapper smileMapper;
+
+    private List<EndpointHitDto> hits;
+
+    private List<ViewStatsDto> stats;
+
+    private byte[] jsonHits;
+
+    private byte[] smileHits;
+
+    private byte[] jsonStats;
+
+    private byte[] smileStats;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        jsonMapper = configure(new ObjectMapper());
+        smileMapper = configure(new ObjectMapper(new SmileFactory()));
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        hits = new ArrayList<>(size);
+        stats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String uri = "/events/" + random.nextInt(10_000);
+            String ip = "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+            hits.add(EndpointHitDto.of(null, "ewm-main-service", uri, ip, now.plusSeconds(i)));
+            stats.add(new ViewStatsDto("ewm-main-service", uri, (long) random.nextInt(100_000), false));
+        }
+        jsonHits = jsonMapper.writeValueAsBytes(hits);
+        smileHits = smileMapper.writeValueAsBytes(hits);
+        jsonStats = jsonMapper.writeValueAsBytes(stats);
+        smileStats = smileMapper.writeValueAsBytes(stats);
+        System.out.printf("%nРазмер сообщений, байт: хиты json=%d smile=%d, статистика json=%d smile=%d%n",
+                jsonHits.length, smileHits.length, jsonStats.length, smileStats.length);
+    }
+
+    @Benchmark
+    public byte[] encodeHitsJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(hits);
+    }
+
+    @Benchmark
+    public byte[] encodeHitsSmile() throws IOException {
+        return smileMapper.writeValueAsBytes(hits);
+    }
+
+    @Benchmark
+    public List<EndpointHitDto> decodeHitsJson() throws IOException {
+        return jsonMapper.readValue(jsonHits, HITS_TYPE);
+    }
+
+    @Benchmark
+    public List<EndpointHitDto> decodeHitsSmile() throws IOException {
+        return smileMapper.readValue(smileHits, HITS_TYPE);
+    }
+
+    @Benchmark
+    public byte[] encodeStatsJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(stats);
+    }
+
+    @Benchmark
+    public byte[] encodeStatsSmile() throws IOException {
+        return smileMapper.writeValueAsBytes(stats);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> decodeStatsJson() throws IOException {
+        return jsonMapper.readValue(jsonStats, STATS_TYPE);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> decodeStatsSmile() throws IOException {
+        return smileMapper.readValue(smileStats, STATS_TYPE);
+    }
+
+    /**
+     * Те же настройки, что у ObjectMapper в приложениях Spring Boot: даты в виде строк.
+     */
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        return objectMapper
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.yandex.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.service.StatService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Регистрация одиночного хита через {@link StatService#methodHit(EndpointHit)} на встроенной базе данных H2 в памяти.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatIngestionBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private StatService statService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = StatServerContext.start("jdbc:h2:mem:ingestion;DB_CLOSE_DELAY=-1", true);
+        statService = context.getBean(StatService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public EndpointHit methodHit() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        EndpointHit hit = EndpointHit.builder()
+                .app(HitDataSet.APP)
+                .uri("/events/" + random.nextInt(HitDataSet.URI_COUNT))
+                .ip("10.0." + random.nextInt(256) + "." + random.nextInt(256))
+                .timestamp(LocalDateTime.now())
+                .build();
+        return statService.methodHit(hit);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.yandex.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.repository.StatRepository;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Агрегирующие запросы {@link StatRepository} на встроенной базе данных H2 с 1, 10 и 50 миллионами хитов. Наборы
+ * данных сохраняются в каталоге {@code stat.bench.db-dir} (по умолчанию {@code target/stat-bench-db}) и повторно
+ * используются при следующих запусках; набор в 50 миллионов хитов генерируется десятки минут и занимает около 7 ГБ
+ * на диске. Запросы по интервалу времени выполняются за один месяц из года, покрытого набором.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StatRepositoryBenchmark {
+
+    @Param({"1000000", "10000000", "50000000"})
+    private long hits;
+
+    private ConfigurableApplicationContext context;
+
+    private StatRepository statRepository;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private List<String> uris;
+
+    private String uri;
+
+    private Set<String> batchUris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Path dbDir = Path.of(System.getProperty("stat.bench.db-dir", "target/stat-bench-db"));
+        String url = "jdbc:h2:file:" + dbDir.toAbsolutePath().resolve("hits-" + hits);
+        boolean seeded = HitDataSet.isSeeded(url, hits);
+        context = StatServerContext.start(url, !seeded);
+        if (!seeded) {
+            HitDataSet.seed(context.getBean(JdbcTemplate.class), hits);
+        }
+        statRepository = context.getBean(StatRepository.class);
+        Random random = new Random(42);
+        start = HitDataSet.START.plusMonths(5);
+        end = start.plusMonths(1);
+        uris = HitDataSet.randomUris(10, random);
+        uri = uris.get(0);
+        batchUris = new HashSet<>(HitDataSet.randomUris(100, random));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ViewStats> findStats() {
+        return statRepository.findStats(start, end);
+    }
+
+    @Benchmark
+    public List<ViewStats> findStatsWithUniqueIps() {
+        return statRepository.findStatsWithUniqueIps(start, end, null);
+    }
+
+    @Benchmark
+    public List<ViewStats> findStatsFromUrlList() {
+        return statRepository.findStatsFromUrlList(start, end, uris);
+    }
+
+    @Benchmark
+    public List<ViewStats> findStatsFromUriListWithUniqueIps() {
+        return statRepository.findStatsWithUniqueIps(start, end, uris);
+    }
+
+    @Benchmark
+    public List<ViewStats> findStatsForUriWithUniqueIps() {
+        return statRepository.findStatsForUrisWithUniqueIps(List.of(uri));
+    }
+
+    @Benchmark
+    public List<ViewStats> findStatsForUrisWithUniqueIps() {
+        return statRepository.findStatsForUrisWithUniqueIps(batchUris);
+    }
+}
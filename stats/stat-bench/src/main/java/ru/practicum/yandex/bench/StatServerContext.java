@@ -0,0 +1,38 @@
+package ru.practicum.yandex.bench;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.yandex.StatServerApp;
+
+/**
+ * Контекст сервиса статистики без веб-сервера поверх встроенной базы данных H2 в режиме совместимости с PostgreSQL.
+ */
+final class StatServerContext {
+
+    private StatServerContext() {
+    }
+
+    /**
+     * Запуск контекста сервиса статистики.
+     *
+     * @param url          JDBC URL базы данных H2 без параметров режима совместимости
+     * @param createSchema пересоздать схему из schema.sql (существующие данные удаляются)
+     * @return запущенный контекст
+     */
+    static ConfigurableApplicationContext start(String url, boolean createSchema) {
+        return new SpringApplicationBuilder(StatServerApp.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=" + url + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.sql.init.mode=" + (createSchema ? "always" : "never"),
+                        "--logging.level.root=WARN",
+                        "--logging.level.ru.practicum.yandex.bench=INFO");
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.yandex.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.yandex.dto.ViewStatsDto;
+import ru.practicum.yandex.mapper.ViewStatsMapper;
+import ru.practicum.yandex.mapper.ViewStatsMapperImpl;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование результатов агрегирующих запросов в DTO через {@link ViewStatsMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewStatsMapperBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private final ViewStatsMapper viewStatsMapper = new ViewStatsMapperImpl();
+
+    private List<ViewStats> stats;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        stats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            stats.add(new ViewStats(HitDataSet.APP, "/events/" + random.nextInt(HitDataSet.URI_COUNT),
+                    (long) random.nextInt(100_000), false));
+        }
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> toDtoList() {
+        return viewStatsMapper.toDtoList(stats);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.yandex;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Размыкатель цепи для вызовов удаленного сервиса. После {@code failureThreshold} ошибок подряд цепь размыкается,
+ * и вызовы сразу отклоняются без обращения к сервису. Через {@code openDurationMs} пропускается один пробный вызов:
+ * при успехе цепь замыкается, при ошибке снова размыкается на тот же срок.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+
+    private final int failureThreshold;
+
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private long openedAt;
+
+    private long unavailableSince;
+
+    private long totalUnavailableNanos;
+
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMs) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Порог ошибок должен быть положительным.");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+    }
+
+    /**
+     * Выполнение вызова через размыкатель цепи.
+     *
+     * @param call      вызов удаленного сервиса
+     * @param isFailure признак ошибки, которая говорит о недоступности сервиса; остальные исключения пробрасываются
+     *                  без изменения состояния цепи
+     * @param <T>       тип результата
+     * @return результат вызова
+     * @throws StatServerUnavailableException если цепь разомкнута или вызов завершился ошибкой недоступности
+     */
+    public <T> T execute(Supplier<T> call, Predicate<RuntimeException> isFailure) {
+        if (!tryAcquirePermission()) {
+            throw new StatServerUnavailableException("Цепь запросов '" + name + "' разомкнута.");
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            if (isFailure.test(e)) {
+                onFailure();
+                throw new StatServerUnavailableException("Запрос '" + name + "' завершился ошибкой: " + e.getMessage(), e);
+            }
+            onSuccess();
+            throw e;
+        }
+        onSuccess();
+        return result;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Суммарное время, в течение которого цепь была разомкнута или ожидала результата пробного вызова.
+     *
+     * @return время в миллисекундах
+     */
+    public synchronized long getOpenTimeMillis() {
+        long total = totalUnavailableNanos;
+        if (state != State.CLOSED) {
+            total += System.nanoTime() - unavailableSince;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(total);
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= openDurationNanos) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            totalUnavailableNanos += System.nanoTime() - unavailableSince;
+            log.info("Цепь запросов '{}' замкнута.", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    private synchronized void onFailure() {
+        long now = System.nanoTime();
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = now;
+            return;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = now;
+            unavailableSince = now;
+            log.warn("Цепь запросов '{}' разомкнута после {} ошибок подряд.", name, consecutiveFailures);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.yandex;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных загрузок одного и того же значения. Первый вызов для ключа выполняет загрузку в своем
+ * потоке, а вызовы с тем же ключом, пришедшие до ее завершения, ожидают и получают тот же результат или то же
+ * исключение. После завершения загрузки ключ освобождается, и следующий вызов снова обращается к источнику данных.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Получение значения по ключу: загрузка, если для ключа нет выполняющейся загрузки, иначе ожидание ее результата.
+     *
+     * @param key    ключ значения
+     * @param loader загрузчик значения
+     * @return загруженное значение
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package ru.practicum.yandex;
 
 import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.TrendingUriDto;
 import ru.practicum.yandex.dto.ViewStatsDto;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,6 +22,13 @@ public interface StatClient {
      */
     EndpointHitDto methodHit(EndpointHitDto endpointHitDto);
 
+    /**
+     * Отправляет пакет информации о посещениях эндпоинтов одним запросом.
+     *
+     * @param endpointHitDtos данные о посещениях
+     */
+    void methodHits(List<EndpointHitDto> endpointHitDtos);
+
     /**
      * Получает статистику посещений за указанный период.
      *
@@ -37,4 +47,32 @@ public interface StatClient {
      * @return данные статистики
      */
     ViewStatsDto getUniqueIpStatsForUri(String uri);
+
+    /**
+     * Получает уникальную статистику по URI посещения с учетом этого посещения, которое еще не отправлено в сервис
+     * статистики. Если посещение с этим IP-адресом уже учтено этим экземпляром приложения, количество не меняется,
+     * в том числе при последующей отправке посещения.
+     *
+     * @param endpointHitDto данные о посещении
+     * @return данные статистики
+     */
+    ViewStatsDto getUniqueIpStatsWithPendingHit(EndpointHitDto endpointHitDto);
+
+    /**
+     * Получает уникальную статистику по набору URI одним запросом.
+     *
+     * @param uris URI для получения статистики
+     * @return данные статистики по URI, по которым есть посещения
+     */
+    List<ViewStatsDto> getUniqueIpStatsForUris(Collection<String> uris);
+
+    /**
+     * Получает URI с префиксом, уникальные посещения которых растут быстрее всего.
+     *
+     * @param window    размер окна, с предыдущим окном того же размера сравнивается последнее окно
+     * @param size      количество URI
+     * @param uriPrefix префикс URI
+     * @return URI в порядке убывания ускорения посещений
+     */
+    List<TrendingUriDto> getTrendingUris(Duration window, int size, String uriPrefix);
 }
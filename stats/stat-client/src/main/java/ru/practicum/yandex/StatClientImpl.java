@@ -1,27 +1,64 @@
 package ru.practicum.yandex;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.TrendingUriDto;
 import ru.practicum.yandex.dto.ViewStatsDto;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
- * Реализация клиента для взаимодействия с сервисом статистики.
+ * Реализация клиента для взаимодействия с сервисом статистики. Все запросы выполняются через размыкатель цепи:
+ * при недоступности сервиса статистики методы быстро завершаются исключением {@link StatServerUnavailableException},
+ * не дожидаясь таймаутов. Каждый запрос к сервису статистики измеряется таймером stat.client.requests с тегами
+ * operation и outcome: success, throttled (ответ 429, сервис статистики перегружен приемом хитов), client_error
+ * (остальные ответы 4xx), unavailable (ошибка соединения, таймаут или ответ 5xx), rejected (цепь разомкнута, запрос
+ * не отправлялся) и error.
  */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class StatClientImpl implements StatClient {
 
+    private static final String REQUESTS_TIMER = "stat.client.requests";
+
     private final WebClient webClient;
 
+    private final CircuitBreaker circuitBreaker;
+
+    private final UniqueIpStatsCache uniqueIpStatsCache;
+
+    private final MeterRegistry meterRegistry;
+
+    private final SingleFlight<String, ViewStatsDto> uniqueIpStatsLoads = new SingleFlight<>();
+
+    public StatClientImpl(WebClient webClient,
+                          CircuitBreaker circuitBreaker,
+                          UniqueIpStatsCache uniqueIpStatsCache,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.webClient = webClient;
+        this.circuitBreaker = circuitBreaker;
+        this.uniqueIpStatsCache = uniqueIpStatsCache;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
     /**
      * Отправляет информацию о посещении эндпоинта.
      *
@@ -32,17 +69,38 @@ public class StatClientImpl implements StatClient {
     public EndpointHitDto methodHit(EndpointHitDto endpointHitDto) {
         String uri = "/hit";
         log.info("Запрос StatClient на uri '{}'. Тело '{}'.", uri, endpointHitDto);
-        EndpointHitDto response = webClient
+        EndpointHitDto response = execute("hit", () -> webClient
                 .post()
                 .uri(uri)
                 .bodyValue(endpointHitDto)
                 .retrieve()
                 .bodyToMono(EndpointHitDto.class)
-                .block();
+                .block());
         log.info("Ответ StatClient от uri '{}'. Тело ответа '{}'.", uri, response);
+        uniqueIpStatsCache.recordHit(endpointHitDto.getApp(), endpointHitDto.getUri(), endpointHitDto.getIp());
         return response;
     }
 
+    /**
+     * Отправляет пакет информации о посещениях эндпоинтов одним запросом.
+     *
+     * @param endpointHitDtos данные о посещениях
+     */
+    @Override
+    public void methodHits(List<EndpointHitDto> endpointHitDtos) {
+        String uri = "/hit/batch";
+        log.info("Запрос StatClient на uri '{}'. Размер пакета '{}'.", uri, endpointHitDtos.size());
+        execute("hit_batch", () -> webClient
+                .post()
+                .uri(uri)
+                .bodyValue(endpointHitDtos)
+                .retrieve()
+                .toBodilessEntity()
+                .block());
+        log.info("Ответ StatClient от uri '{}'. Пакет из '{}' хитов сохранен.", uri, endpointHitDtos.size());
+        endpointHitDtos.forEach(hit -> uniqueIpStatsCache.recordHit(hit.getApp(), hit.getUri(), hit.getIp()));
+    }
+
     /**
      * Получает статистику посещений за указанный период.
      *
@@ -61,34 +119,153 @@ public class StatClientImpl implements StatClient {
                 unique);
 
         log.info("Запрос StatClient на uri '{}'.", requestUrl);
-        List<ViewStatsDto> response = webClient.get()
+        List<ViewStatsDto> response = execute("stats", () -> webClient.get()
                 .uri(requestUrl)
                 .retrieve()
                 .bodyToFlux(ViewStatsDto.class)
                 .collectList()
-                .block();
+                .block());
         log.info("Ответ StatClient от uri '{}'. Тело ответа '{}'.", requestUrl, response);
         return response;
     }
 
     /**
-     * Получает уникальную статистику по конкретному URI.
+     * Получает уникальную статистику по конкретному URI. Значение берется из ближнего кэша, а одновременные загрузки
+     * статистики одного URI объединяются в один запрос к сервису статистики.
      *
      * @param uri URI для получения статистики
      * @return данные статистики
      */
     @Override
     public ViewStatsDto getUniqueIpStatsForUri(String uri) {
+        return uniqueIpStatsCache.get(uri, key -> uniqueIpStatsLoads.execute(key, () -> loadUniqueIpStatsForUri(key)));
+    }
+
+    /**
+     * Получает уникальную статистику по URI посещения и учитывает еще не отправленное посещение в ближнем кэше.
+     * Статистика URI загружается в кэш перед учетом посещения, поэтому посещение учитывается и при первом запросе
+     * URI.
+     *
+     * @param endpointHitDto данные о посещении
+     * @return данные статистики
+     */
+    @Override
+    public ViewStatsDto getUniqueIpStatsWithPendingHit(EndpointHitDto endpointHitDto) {
+        ViewStatsDto stats = getUniqueIpStatsForUri(endpointHitDto.getUri());
+        ViewStatsDto statsWithPendingHit = uniqueIpStatsCache.recordHit(endpointHitDto.getApp(),
+                endpointHitDto.getUri(), endpointHitDto.getIp());
+        return statsWithPendingHit == null ? stats : statsWithPendingHit;
+    }
+
+    /**
+     * Получает уникальную статистику по набору URI. Актуальные значения берутся из ближнего кэша, статистика остальных
+     * URI загружается из сервиса статистики одним запросом.
+     *
+     * @param uris URI для получения статистики
+     * @return данные статистики по URI, по которым есть посещения
+     */
+    @Override
+    public List<ViewStatsDto> getUniqueIpStatsForUris(Collection<String> uris) {
+        if (uris.isEmpty()) {
+            return List.of();
+        }
+        return new ArrayList<>(uniqueIpStatsCache.getAll(uris, this::loadUniqueIpStatsForUris).values());
+    }
+
+    /**
+     * Получает URI с префиксом, уникальные посещения которых растут быстрее всего.
+     *
+     * @param window    размер окна, с предыдущим окном того же размера сравнивается последнее окно
+     * @param size      количество URI
+     * @param uriPrefix префикс URI
+     * @return URI в порядке убывания ускорения посещений
+     */
+    @Override
+    public List<TrendingUriDto> getTrendingUris(Duration window, int size, String uriPrefix) {
+        log.info("Запрос StatClient на рейтинг URI с префиксом '{}', окно '{}', размер '{}'.", uriPrefix, window, size);
+        List<TrendingUriDto> response = execute("trending", () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/stats/trending")
+                        .queryParam("window", window.toString())
+                        .queryParam("size", size)
+                        .queryParam("prefix", uriPrefix)
+                        .build())
+                .retrieve()
+                .bodyToFlux(TrendingUriDto.class)
+                .collectList()
+                .block());
+        log.info("Ответ StatClient на рейтинг URI с префиксом '{}'. Размер рейтинга '{}'.", uriPrefix, response.size());
+        return response;
+    }
+
+    private Map<String, ViewStatsDto> loadUniqueIpStatsForUris(Set<String> uris) {
+        String uri = "/statistic/batch";
+        log.info("Запрос StatClient на uri '{}'. Количество URI '{}'.", uri, uris.size());
+        List<ViewStatsDto> response = execute("unique_stats_batch", () -> webClient.post()
+                .uri(uri)
+                .bodyValue(uris)
+                .retrieve()
+                .bodyToFlux(ViewStatsDto.class)
+                .collectList()
+                .block());
+        log.info("Ответ StatClient от uri '{}'. Статистика получена для '{}' URI.", uri, response.size());
+        return response.stream()
+                .collect(Collectors.toMap(ViewStatsDto::getUri, Function.identity(), (first, second) -> first));
+    }
+
+    private ViewStatsDto loadUniqueIpStatsForUri(String uri) {
         log.info("Запрос StatClient на уникальные статистические данные по uri '{}'.", uri);
-        ViewStatsDto response = webClient.get()
+        ViewStatsDto response = execute("unique_stats", () -> webClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/statistic")
                         .queryParam("uri", uri)
                         .build())
                 .retrieve()
                 .bodyToMono(ViewStatsDto.class)
-                .block();
+                .block());
         log.info("Ответ StatClient от уникальных статистических данных по uri '{}'. Тело ответа '{}'.", uri, response);
         return response;
     }
+
+    private <T> T execute(String operation, Supplier<T> request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return circuitBreaker.execute(request, StatClientImpl::isUnavailable);
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(REQUESTS_TIMER)
+                    .description("Запросы к сервису статистики")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String outcome(RuntimeException e) {
+        if (e instanceof StatServerUnavailableException) {
+            // Без причины исключение выбрасывается размыкателем цепи, когда запрос не отправлялся.
+            return e.getCause() == null ? "rejected" : "unavailable";
+        }
+        if (e instanceof WebClientResponseException.TooManyRequests) {
+            return "throttled";
+        }
+        if (e instanceof WebClientResponseException) {
+            return "client_error";
+        }
+        return "error";
+    }
+
+    /**
+     * Ошибки соединения, таймауты и ответы 5xx говорят о недоступности сервиса статистики; ответы 4xx - об ошибке
+     * в самом запросе и на состояние цепи не влияют.
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        if (e instanceof WebClientResponseException) {
+            return ((WebClientResponseException) e).getStatusCode().is5xxServerError();
+        }
+        return true;
+    }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.yandex;
+
+/**
+ * Сервис статистики недоступен: цепь запросов разомкнута или запрос завершился ошибкой соединения, таймаутом
+ * или ошибкой сервера.
+ */
+public class StatServerUnavailableException extends RuntimeException {
+    public StatServerUnavailableException(String message) {
+        super(message);
+    }
+
+    public StatServerUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
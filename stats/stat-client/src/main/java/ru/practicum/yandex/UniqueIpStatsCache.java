@@ -0,0 +1,221 @@
+package ru.practicum.yandex;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Ближний кэш статистики уникальных IP-адресов по URI. Значение считается актуальным {@code ttlMs} после загрузки;
+ * за {@code refreshAheadMs} до истечения срока запрос получает кэшированное значение, а обновление выполняется
+ * в фоне. Хиты, отправленные этим экземпляром приложения, сразу увеличивают кэшированное количество, если этот
+ * экземпляр еще не отправлял хит с таким IP-адресом для этого URI (отправленные ранее хиты уже учтены сервером
+ * статистики). Если IP-адрес уже был учтен сервером по хитам других экземпляров, количество временно завышается
+ * и исправляется при следующей загрузке. Количество URI в кэше ограничено, давно не запрашиваемые URI вытесняются.
+ */
+@Slf4j
+public class UniqueIpStatsCache {
+
+    private static final int MAX_TRACKED_IPS = 1000;
+
+    private final long ttlNanos;
+
+    private final long refreshAheadNanos;
+
+    private final Map<String, Entry> entries;
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "unique-ip-stats-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UniqueIpStatsCache(int maxSize, long ttlMs, long refreshAheadMs) {
+        if (refreshAheadMs >= ttlMs) {
+            throw new IllegalArgumentException("Время упреждающего обновления должно быть меньше времени жизни значения.");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.refreshAheadNanos = TimeUnit.MILLISECONDS.toNanos(refreshAheadMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Получение статистики URI из кэша или загрузка при отсутствии актуального значения. Если загрузка завершилась
+     * ошибкой, а в кэше есть устаревшее значение, возвращается оно.
+     *
+     * @param uri    URI
+     * @param loader загрузчик статистики, может вернуть null, если хитов по URI нет
+     * @return статистика или null, если хитов по URI нет
+     */
+    public ViewStatsDto get(String uri, Function<String, ViewStatsDto> loader) {
+        long now = System.nanoTime();
+        Entry stale;
+        synchronized (this) {
+            stale = entries.get(uri);
+            if (stale != null && now - stale.loadedAt < ttlNanos) {
+                if (now - stale.loadedAt >= ttlNanos - refreshAheadNanos && !stale.refreshing) {
+                    stale.refreshing = true;
+                    refreshExecutor.execute(() -> refresh(uri, loader));
+                }
+                return stale.stats;
+            }
+        }
+        try {
+            return load(uri, loader);
+        } catch (RuntimeException e) {
+            if (stale == null) {
+                throw e;
+            }
+            log.warn("Не удалось загрузить статистику для uri '{}', используется устаревшее значение. Причина: {}",
+                    uri, e.getMessage());
+            return stale.stats;
+        }
+    }
+
+    /**
+     * Получение статистики набора URI: актуальные значения берутся из кэша, остальные URI загружаются одним вызовом
+     * загрузчика. Если загрузка завершилась ошибкой, а устаревшие значения есть для всех незагруженных URI,
+     * возвращаются они.
+     *
+     * @param uris   URI
+     * @param loader загрузчик статистики набора URI, возвращает статистику только для URI, по которым есть хиты
+     * @return статистика по URI, по которым есть хиты
+     */
+    public Map<String, ViewStatsDto> getAll(Collection<String> uris, Function<Set<String>, Map<String, ViewStatsDto>> loader) {
+        long now = System.nanoTime();
+        Map<String, ViewStatsDto> result = new HashMap<>();
+        Map<String, Entry> stale = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        synchronized (this) {
+            for (String uri : uris) {
+                Entry entry = entries.get(uri);
+                if (entry != null && now - entry.loadedAt < ttlNanos) {
+                    if (entry.stats != null) {
+                        result.put(uri, entry.stats);
+                    }
+                } else {
+                    missing.add(uri);
+                    if (entry != null) {
+                        stale.put(uri, entry);
+                    }
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<String, ViewStatsDto> loaded;
+        try {
+            loaded = loadAll(missing, loader);
+        } catch (RuntimeException e) {
+            if (stale.size() < missing.size()) {
+                throw e;
+            }
+            log.warn("Не удалось загрузить статистику для '{}' URI, используются устаревшие значения. Причина: {}",
+                    missing.size(), e.getMessage());
+            stale.forEach((uri, entry) -> {
+                if (entry.stats != null) {
+                    result.put(uri, entry.stats);
+                }
+            });
+            return result;
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Учет хита, отправленного или ожидающего отправки этим экземпляром приложения в сервис статистики.
+     *
+     * @param app имя приложения
+     * @param uri URI хита
+     * @param ip  IP-адрес хита
+     * @return статистика URI с учетом хита или null, если статистика URI не загружена в кэш
+     */
+    public synchronized ViewStatsDto recordHit(String app, String uri, String ip) {
+        Entry entry = entries.get(uri);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.shippedIps.size() < MAX_TRACKED_IPS && entry.shippedIps.add(ip)) {
+            long hits = entry.stats == null ? 1 : entry.stats.getHits() + 1;
+            boolean estimated = entry.stats != null && entry.stats.isEstimated();
+            entry.stats = new ViewStatsDto(app, uri, hits, estimated);
+        }
+        return entry.stats;
+    }
+
+    private void refresh(String uri, Function<String, ViewStatsDto> loader) {
+        try {
+            load(uri, loader);
+        } catch (RuntimeException e) {
+            log.debug("Не удалось обновить статистику для uri '{}'. Причина: {}", uri, e.getMessage());
+            synchronized (this) {
+                Entry entry = entries.get(uri);
+                if (entry != null) {
+                    entry.refreshing = false;
+                }
+            }
+        }
+    }
+
+    private ViewStatsDto load(String uri, Function<String, ViewStatsDto> loader) {
+        long loadedAt = System.nanoTime();
+        ViewStatsDto stats = loader.apply(uri);
+        synchronized (this) {
+            Entry previous = entries.get(uri);
+            Entry entry = new Entry(stats, loadedAt);
+            if (previous != null) {
+                entry.shippedIps.addAll(previous.shippedIps);
+            }
+            entries.put(uri, entry);
+        }
+        return stats;
+    }
+
+    private Map<String, ViewStatsDto> loadAll(Set<String> uris, Function<Set<String>, Map<String, ViewStatsDto>> loader) {
+        long loadedAt = System.nanoTime();
+        Map<String, ViewStatsDto> loaded = loader.apply(uris);
+        synchronized (this) {
+            for (String uri : uris) {
+                Entry previous = entries.get(uri);
+                Entry entry = new Entry(loaded.get(uri), loadedAt);
+                if (previous != null) {
+                    entry.shippedIps.addAll(previous.shippedIps);
+                }
+                entries.put(uri, entry);
+            }
+        }
+        return loaded;
+    }
+
+    private static class Entry {
+
+        private final long loadedAt;
+
+        private final Set<String> shippedIps = new HashSet<>();
+
+        private ViewStatsDto stats;
+
+        private boolean refreshing;
+
+        Entry(ViewStatsDto stats, long loadedAt) {
+            this.stats = stats;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
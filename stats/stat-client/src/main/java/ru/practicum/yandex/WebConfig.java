@@ -1,11 +1,26 @@
 package ru.practicum.yandex;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.yandex.dto.StatMediaType;
+
+import java.time.Duration;
 
 /**
  * Конфигурационный класс для настройки WebClient.
@@ -13,18 +28,110 @@ import org.springframework.web.reactive.function.client.WebClient;
 @Configuration
 public class WebConfig {
 
+    private static final String STAT_SERVER = "stat-server";
+
     /**
-     * Создает и настраивает экземпляр WebClient.
+     * Создает и настраивает экземпляр WebClient. Соединения с сервером статистики берутся из пула ограниченного
+     * размера и переиспользуются (keep-alive); ожидание соединения из пула, установка соединения и ожидание ответа
+     * ограничены таймаутами, чтобы медленный сервер статистики не занимал потоки обработки запросов бесконечно.
+     * По умолчанию данные передаются в JSON; формат smile уменьшает размер сообщений и затраты на их разбор на обеих
+     * сторонах. Состояние пула соединений публикуется в метриках reactor.netty.connection.provider.*.
      *
-     * @param addressBaseUrl базовый URL сервера статистики, получаемый из настроек приложения
+     * @param addressBaseUrl           базовый URL сервера статистики, получаемый из настроек приложения
+     * @param maxConnections           размер пула соединений
+     * @param pendingAcquireTimeoutMs  максимальное ожидание свободного соединения из пула
+     * @param maxIdleTimeMs            время, через которое неиспользуемое соединение закрывается
+     * @param connectTimeoutMs         таймаут установки соединения
+     * @param responseTimeoutMs        таймаут ожидания ответа
+     * @param wireFormat               формат обмена данными с сервером статистики: json или smile
      * @return настроенный WebClient
      */
     @Bean
-    public WebClient webClient(@Value("${stat-server.url}") String addressBaseUrl) {
-        WebClient webClient = WebClient.create(addressBaseUrl);
-        return webClient.mutate()
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+    public WebClient webClient(@Value("${stat-server.url}") String addressBaseUrl,
+                               @Value("${stat-server.client.max-connections:50}") int maxConnections,
+                               @Value("${stat-server.client.pending-acquire-timeout-ms:1000}") long pendingAcquireTimeoutMs,
+                               @Value("${stat-server.client.max-idle-time-ms:30000}") long maxIdleTimeMs,
+                               @Value("${stat-server.client.connect-timeout-ms:1000}") int connectTimeoutMs,
+                               @Value("${stat-server.client.response-timeout-ms:2000}") long responseTimeoutMs,
+                               @Value("${stat-server.client.wire-format:json}") String wireFormat) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(STAT_SERVER)
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .metrics(true)
                 .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .keepAlive(true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        String mediaType = resolveMediaType(wireFormat);
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl(addressBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, mediaType)
+                .defaultHeader(HttpHeaders.ACCEPT, mediaType);
+        if (StatMediaType.APPLICATION_SMILE_VALUE.equals(mediaType)) {
+            // Кодеки Smile проверяются раньше кодеков JSON, поэтому регистрируются только для формата smile.
+            ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+            builder.codecs(configurer -> {
+                configurer.customCodecs().register(new Jackson2SmileEncoder(smileMapper));
+                configurer.customCodecs().register(new Jackson2SmileDecoder(smileMapper));
+            });
+        }
+        return builder.build();
+    }
+
+    private static String resolveMediaType(String wireFormat) {
+        switch (wireFormat.toLowerCase()) {
+            case "json":
+                return MediaType.APPLICATION_JSON_VALUE;
+            case "smile":
+                return StatMediaType.APPLICATION_SMILE_VALUE;
+            default:
+                throw new IllegalArgumentException("Неизвестный формат обмена данными с сервером статистики: '" +
+                        wireFormat + "'.");
+        }
+    }
+
+    /**
+     * Создает ближний кэш статистики уникальных IP-адресов.
+     *
+     * @param maxSize        максимальное количество URI в кэше
+     * @param ttlMs          время жизни значения
+     * @param refreshAheadMs за сколько до истечения времени жизни значение обновляется в фоне
+     * @return кэш статистики
+     */
+    @Bean
+    public UniqueIpStatsCache uniqueIpStatsCache(@Value("${stat-server.client.unique-ip-cache.max-size:10000}") int maxSize,
+                                                 @Value("${stat-server.client.unique-ip-cache.ttl-ms:5000}") long ttlMs,
+                                                 @Value("${stat-server.client.unique-ip-cache.refresh-ahead-ms:1000}") long refreshAheadMs) {
+        return new UniqueIpStatsCache(maxSize, ttlMs, refreshAheadMs);
+    }
+
+    /**
+     * Создает размыкатель цепи для запросов к серверу статистики. Если в приложении есть реестр метрик, публикуются
+     * состояние цепи (0 - замкнута, 1 - разомкнута, 2 - пробный вызов) и суммарное время в разомкнутом состоянии.
+     *
+     * @param failureThreshold количество ошибок подряд, после которого цепь размыкается
+     * @param openDurationMs   время до пробного вызова после размыкания цепи
+     * @param meterRegistry    реестр метрик, если он есть
+     * @return размыкатель цепи
+     */
+    @Bean
+    public CircuitBreaker statServerCircuitBreaker(@Value("${stat-server.client.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                                   @Value("${stat-server.client.circuit-breaker.open-duration-ms:10000}") long openDurationMs,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(STAT_SERVER, failureThreshold, openDurationMs);
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("stat.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .description("Состояние цепи запросов к серверу статистики")
+                    .register(registry);
+            FunctionCounter.builder("stat.client.circuit.open.time", circuitBreaker,
+                            breaker -> breaker.getOpenTimeMillis() / 1000.0)
+                    .baseUnit("seconds")
+                    .description("Суммарное время, в течение которого цепь запросов к серверу статистики разомкнута")
+                    .register(registry);
+        });
+        return circuitBreaker;
     }
 }
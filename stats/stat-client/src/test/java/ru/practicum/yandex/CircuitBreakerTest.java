@@ -0,0 +1,143 @@
+package ru.practicum.yandex;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Проверка переходов размыкателя цепи и того, что в полуоткрытом состоянии к сервису проходит ровно один пробный
+ * вызов, даже если вызовы приходят одновременно.
+ */
+class CircuitBreakerTest {
+
+    private static final Predicate<RuntimeException> UNAVAILABLE = e -> e instanceof IllegalStateException;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsWithoutCalling() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> fail(calls), UNAVAILABLE))
+                    .isInstanceOf(StatServerUnavailableException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(() -> breaker.execute(() -> fail(calls), UNAVAILABLE))
+                .isInstanceOf(StatServerUnavailableException.class)
+                .hasNoCause();
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void successAndNonFailureErrorsResetFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> breaker.execute(() -> fail(calls), UNAVAILABLE));
+        assertThatThrownBy(() -> breaker.execute(() -> {
+            throw new IllegalArgumentException("bad request");
+        }, UNAVAILABLE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> breaker.execute(() -> fail(calls), UNAVAILABLE));
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        assertThat(breaker.execute(() -> "ok", UNAVAILABLE)).isEqualTo("ok");
+        assertThatThrownBy(() -> breaker.execute(() -> fail(calls), UNAVAILABLE));
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void probeSuccessClosesAndProbeFailureReopens() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 50);
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> breaker.execute(() -> fail(calls), UNAVAILABLE));
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        Thread.sleep(80);
+        assertThatThrownBy(() -> breaker.execute(() -> fail(calls), UNAVAILABLE))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.execute(() -> fail(calls), UNAVAILABLE)).hasNoCause();
+
+        Thread.sleep(80);
+        assertThat(breaker.execute(() -> "ok", UNAVAILABLE)).isEqualTo("ok");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getOpenTimeMillis()).isGreaterThanOrEqualTo(160);
+    }
+
+    @Test
+    void letsOnlyOneProbeThroughWhenHalfOpen() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 50);
+        assertThatThrownBy(() -> breaker.execute(() -> fail(new AtomicInteger()), UNAVAILABLE));
+        Thread.sleep(80);
+
+        AtomicInteger probes = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        CountDownLatch finishProbe = new CountDownLatch(1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> callers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            callers.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return breaker.execute(() -> {
+                        probes.incrementAndGet();
+                        probeStarted.countDown();
+                        await(finishProbe);
+                        return "ok";
+                    }, UNAVAILABLE);
+                } catch (StatServerUnavailableException e) {
+                    rejected.incrementAndGet();
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+        assertThat(probeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 100 && rejected.get() < 15; i++) {
+            Thread.sleep(10);
+        }
+        finishProbe.countDown();
+        for (Future<?> caller : callers) {
+            caller.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(probes.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(15);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static String fail(AtomicInteger calls) {
+        calls.incrementAndGet();
+        throw new IllegalStateException("connection refused");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
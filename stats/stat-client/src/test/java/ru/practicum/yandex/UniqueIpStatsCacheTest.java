@@ -0,0 +1,176 @@
+package ru.practicum.yandex;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Проверка ближнего кэша статистики уникальных IP-адресов: загрузка не чаще одного раза за время жизни значения,
+ * одно фоновое обновление перед истечением срока, устаревшее значение при ошибке загрузки и учет собственных хитов
+ * по одному разу на IP-адрес, в том числе при одновременных хитах.
+ */
+class UniqueIpStatsCacheTest {
+
+    private static final String URI = "/events/1";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loadsOncePerTtl() {
+        UniqueIpStatsCache cache = new UniqueIpStatsCache(10, 60_000, 1_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(cache.get(URI, uri -> stats(uri, 10 + loads.incrementAndGet())).getHits()).isEqualTo(11);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshesAheadOnceInBackground() throws Exception {
+        UniqueIpStatsCache cache = new UniqueIpStatsCache(10, 2_000, 1_900);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch refreshed = new CountDownLatch(1);
+        cache.get(URI, uri -> stats(uri, loads.incrementAndGet()));
+        Thread.sleep(150);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ViewStatsDto>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(executor.submit(() -> {
+                start.await();
+                return cache.get(URI, uri -> {
+                    ViewStatsDto stats = stats(uri, loads.incrementAndGet());
+                    refreshed.countDown();
+                    return stats;
+                });
+            }));
+        }
+        start.countDown();
+        // Вызовы не ждут обновления: каждый получает прежнее значение или уже обновленное, если пришел позже.
+        for (Future<ViewStatsDto> caller : callers) {
+            assertThat(caller.get(5, TimeUnit.SECONDS).getHits()).isBetween(1L, 2L);
+        }
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.get(URI, uri -> stats(uri, 100)).getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void returnsStaleValueWhenReloadFails() throws InterruptedException {
+        UniqueIpStatsCache cache = new UniqueIpStatsCache(10, 50, 10);
+        cache.get(URI, uri -> stats(uri, 7));
+        Thread.sleep(80);
+
+        assertThat(cache.get(URI, uri -> {
+            throw new StatServerUnavailableException("down");
+        }).getHits()).isEqualTo(7);
+        assertThatThrownBy(() -> cache.get("/events/2", uri -> {
+            throw new StatServerUnavailableException("down");
+        })).isInstanceOf(StatServerUnavailableException.class);
+    }
+
+    @Test
+    void getAllLoadsOnlyMissingUrisInOneCall() {
+        UniqueIpStatsCache cache = new UniqueIpStatsCache(10, 60_000, 1_000);
+        cache.get("/events/1", uri -> stats(uri, 1));
+        List<Set<String>> requested = new ArrayList<>();
+
+        Map<String, ViewStatsDto> result = cache.getAll(List.of("/events/1", "/events/2", "/events/3"), uris -> {
+            requested.add(Set.copyOf(uris));
+            Map<String, ViewStatsDto> loaded = new HashMap<>();
+            loaded.put("/events/2", stats("/events/2", 2));
+            return loaded;
+        });
+
+        assertThat(requested).containsExactly(Set.of("/events/2", "/events/3"));
+        assertThat(result).containsOnlyKeys("/events/1", "/events/2");
+        assertThat(cache.getAll(List.of("/events/3"), uris -> {
+            throw new AssertionError("URI без хитов уже загружен");
+        })).isEmpty();
+    }
+
+    @Test
+    void recordsEachIpOnceAcrossReloads() throws InterruptedException {
+        UniqueIpStatsCache cache = new UniqueIpStatsCache(10, 50, 10);
+        assertThat(cache.recordHit("ewm", URI, "10.0.0.1")).isNull();
+        cache.get(URI, uri -> stats(uri, 5));
+
+        assertThat(cache.recordHit("ewm", URI, "10.0.0.1").getHits()).isEqualTo(6);
+        assertThat(cache.recordHit("ewm", URI, "10.0.0.1").getHits()).isEqualTo(6);
+        assertThat(cache.recordHit("ewm", URI, "10.0.0.2").getHits()).isEqualTo(7);
+
+        Thread.sleep(80);
+        cache.get(URI, uri -> stats(uri, 7));
+        assertThat(cache.recordHit("ewm", URI, "10.0.0.1").getHits()).isEqualTo(7);
+        assertThat(cache.recordHit("ewm", URI, "10.0.0.3").getHits()).isEqualTo(8);
+    }
+
+    @Test
+    void countsConcurrentHitsOfDistinctIpsExactly() throws Exception {
+        UniqueIpStatsCache cache = new UniqueIpStatsCache(10, 60_000, 1_000);
+        cache.get(URI, uri -> stats(uri, 0));
+        int threads = 8;
+        int ipsPerThread = 100;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ipsPerThread; i++) {
+                    cache.recordHit("ewm", URI, "10.0." + thread + "." + i);
+                    cache.recordHit("ewm", URI, "10.0." + thread + "." + i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(cache.get(URI, uri -> stats(uri, -1)).getHits()).isEqualTo(threads * ipsPerThread);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUris() {
+        UniqueIpStatsCache cache = new UniqueIpStatsCache(2, 60_000, 1_000);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("/events/1", uri -> stats(uri, loads.incrementAndGet()));
+        cache.get("/events/2", uri -> stats(uri, loads.incrementAndGet()));
+        cache.get("/events/1", uri -> stats(uri, loads.incrementAndGet()));
+        cache.get("/events/3", uri -> stats(uri, loads.incrementAndGet()));
+
+        cache.get("/events/1", uri -> stats(uri, loads.incrementAndGet()));
+        assertThat(loads.get()).isEqualTo(3);
+        cache.get("/events/2", uri -> stats(uri, loads.incrementAndGet()));
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    private static ViewStatsDto stats(String uri, long hits) {
+        return new ViewStatsDto("ewm", uri, hits, false);
+    }
+}
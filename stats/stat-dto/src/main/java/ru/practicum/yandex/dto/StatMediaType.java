@@ -0,0 +1,16 @@
+package ru.practicum.yandex.dto;
+
+/**
+ * Типы содержимого, поддерживаемые сервисом статистики помимо JSON.
+ */
+public final class StatMediaType {
+
+    /**
+     * Бинарный формат Smile: та же модель данных, что и в JSON, но без разбора текста, с повторным использованием
+     * уже встречавшихся имен полей и строк.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private StatMediaType() {
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.yandex.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingUriDto {
+
+    private String uri;
+
+    private Long recentHits;
+
+    private Long previousHits;
+
+    private Long acceleration;
+}
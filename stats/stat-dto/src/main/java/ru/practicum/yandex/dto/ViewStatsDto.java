@@ -14,4 +14,9 @@ public class ViewStatsDto {
     private String uri;
 
     private Long hits;
+
+    /**
+     * Количество хитов оценено по выборке, которую сервис статистики сохранял при перегрузке.
+     */
+    private boolean estimated;
 }
@@ -0,0 +1,21 @@
+package ru.practicum.yandex.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewStatsSeriesDto {
+
+    private String app;
+
+    private String uri;
+
+    private List<ViewStatsPointDto> points;
+
+    private boolean estimated;
+}
@@ -0,0 +1,37 @@
+package ru.practicum.yandex.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.yandex.service.IngestionLimiter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Пропускает запросы с хитами через {@link IngestionLimiter}. Разрешение берется до чтения тела запроса
+ * и возвращается после отправки ответа, в том числе при ошибке сохранения.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestionLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = IngestionLimitInterceptor.class.getName() + ".PERMIT";
+
+    private final IngestionLimiter ingestionLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ingestionLimiter.acquire();
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            ingestionLimiter.release();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.yandex.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Настройка форматов обмена данными. Кроме JSON сервер принимает и отдает данные в бинарном формате Smile, если
+ * клиент указал его в заголовках Content-Type и Accept. Конвертер Smile добавляется после конвертеров по умолчанию,
+ * поэтому на запросы без явного Accept сервер по-прежнему отвечает в JSON. Прием хитов ограничивается
+ * {@link IngestionLimitInterceptor}, чтобы всплеск хитов не занимал все соединения, нужные запросам статистики.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    private final IngestionLimitInterceptor ingestionLimitInterceptor;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder
+                .factory(new SmileFactory())
+                .build()));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(ingestionLimitInterceptor).addPathPatterns("/hit", "/hit/batch");
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.yandex.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -9,20 +10,26 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.TrendingUriDto;
 import ru.practicum.yandex.dto.ViewStatsDto;
+import ru.practicum.yandex.dto.ViewStatsSeriesDto;
 import ru.practicum.yandex.exception.IncorrectDateIntervalException;
+import ru.practicum.yandex.exception.IncorrectRequestParameterException;
 import ru.practicum.yandex.mapper.EndpointHitMapper;
 import ru.practicum.yandex.mapper.ViewStatsMapper;
 import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.SeriesInterval;
+import ru.practicum.yandex.model.TrendingUri;
 import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.model.ViewStatsSeries;
 import ru.practicum.yandex.service.StatService;
+import ru.practicum.yandex.util.DateTimeDecoder;
 
 import javax.validation.Valid;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
 
 import static org.springframework.http.HttpStatus.CREATED;
 
@@ -50,6 +57,19 @@ public class StatController {
         return endpointHitMapper.toDto(savedHit);
     }
 
+    /**
+     * Пакетное добавление информации о хитах.
+     *
+     * @param endpointHitDtos данные хитов
+     */
+    @PostMapping("/hit/batch")
+    @ResponseStatus(CREATED)
+    public void methodHits(@RequestBody List<EndpointHitDto> endpointHitDtos) {
+        List<EndpointHit> endpointHits = endpointHitMapper.toModelList(endpointHitDtos);
+        log.info("Пакетное добавление обращений к методам, размер пакета '{}'.", endpointHits.size());
+        statService.methodHits(endpointHits);
+    }
+
     /**
      * Получение статистики просмотров.
      *
@@ -64,14 +84,60 @@ public class StatController {
                                         @RequestParam String end,
                                         @RequestParam(required = false) List<String> uris,
                                         @RequestParam(defaultValue = "false") Boolean unique) {
-        LocalDateTime decodedStart = decodeLocalDateTime(start);
-        LocalDateTime decodedEnd = decodeLocalDateTime(end);
+        LocalDateTime decodedStart = DateTimeDecoder.decode(start);
+        LocalDateTime decodedEnd = DateTimeDecoder.decode(end);
         validateDates(decodedStart, decodedEnd);
         log.info("Запрос статистики, начало = '{}', конец = '{}', URIs = '{}', уникальность = '{}'.", start, end, uris, unique);
         List<ViewStats> statsList = statService.viewStats(decodedStart, decodedEnd, uris, unique);
         return viewStatsMapper.toDtoList(statsList);
     }
 
+    /**
+     * Получение временного ряда статистики просмотров: количество хитов каждого URI по интервалам.
+     * Интервалы без хитов в ряд не попадают.
+     *
+     * @param start    начало интервала
+     * @param end      конец интервала
+     * @param interval размер интервала: minute, hour, day, week или month
+     * @param uris     список URI для фильтрации
+     * @param unique   учитывать только уникальные запросы внутри интервала
+     * @return временные ряды статистики просмотров
+     */
+    @GetMapping("/stats/series")
+    public List<ViewStatsSeriesDto> viewStatsSeries(@RequestParam String start,
+                                                    @RequestParam String end,
+                                                    @RequestParam(defaultValue = "hour") String interval,
+                                                    @RequestParam(required = false) List<String> uris,
+                                                    @RequestParam(defaultValue = "false") Boolean unique) {
+        LocalDateTime decodedStart = DateTimeDecoder.decode(start);
+        LocalDateTime decodedEnd = DateTimeDecoder.decode(end);
+        validateDates(decodedStart, decodedEnd);
+        SeriesInterval seriesInterval = SeriesInterval.from(interval);
+        log.info("Запрос временного ряда статистики, начало = '{}', конец = '{}', интервал = '{}', URIs = '{}', " +
+                "уникальность = '{}'.", start, end, interval, uris, unique);
+        List<ViewStatsSeries> series = statService.viewStatsSeries(decodedStart, decodedEnd, uris, seriesInterval, unique);
+        return viewStatsMapper.toSeriesDtoList(series);
+    }
+
+    /**
+     * Получение URI, просмотры которых растут быстрее всего: сравнивается количество уникальных IP-адресов
+     * в последнем окне и в предыдущем окне того же размера.
+     *
+     * @param window размер окна: 30m, 1h, 1d или в формате ISO-8601 (PT1H)
+     * @param size   количество URI в рейтинге
+     * @param prefix префикс URI, например /events/
+     * @return URI в порядке убывания ускорения просмотров
+     */
+    @GetMapping("/stats/trending")
+    public List<TrendingUriDto> viewTrendingUris(@RequestParam(defaultValue = "1h") String window,
+                                                 @RequestParam(defaultValue = "20") Integer size,
+                                                 @RequestParam String prefix) {
+        log.info("Запрос рейтинга URI по ускорению просмотров, окно = '{}', размер = '{}', префикс = '{}'.",
+                window, size, prefix);
+        List<TrendingUri> trendingUris = statService.viewTrendingUris(parseWindow(window), size, prefix);
+        return viewStatsMapper.toTrendingDtoList(trendingUris);
+    }
+
     /**
      * Получение статистики по уникальным IP-адресам для указанного URI.
      *
@@ -85,6 +151,27 @@ public class StatController {
         return viewStatsMapper.toDto(stats);
     }
 
+    /**
+     * Получение статистики по уникальным IP-адресам для набора URI одним запросом.
+     *
+     * @param uris URI для запроса
+     * @return статистика по уникальным IP-адресам для URI, по которым есть хиты
+     */
+    @PostMapping("/statistic/batch")
+    public List<ViewStatsDto> viewUniqueStatsForUris(@RequestBody Set<String> uris) {
+        log.info("Запрос статистики по уникальным IP-адресам для '{}' URI.", uris.size());
+        List<ViewStats> stats = statService.viewStatsForUrisWithUniqueIps(uris);
+        return viewStatsMapper.toDtoList(stats);
+    }
+
+    private Duration parseWindow(String window) {
+        try {
+            return DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new IncorrectRequestParameterException("Неправильный размер окна '" + window + "'.");
+        }
+    }
+
     /**
      * Проверка корректности интервала дат.
      *
@@ -96,16 +183,4 @@ public class StatController {
             throw new IncorrectDateIntervalException("Неправильный интервал даты. Дата окончания должна быть после даты начала.");
         }
     }
-
-    /**
-     * Декодирование даты и времени из строки.
-     *
-     * @param encodedDateTime закодированная строка даты и времени
-     * @return декодированное значение LocalDateTime
-     */
-    private LocalDateTime decodeLocalDateTime(String encodedDateTime) {
-        String decodedDateTime = URLDecoder.decode(encodedDateTime, StandardCharsets.UTF_8);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return LocalDateTime.parse(decodedDateTime, formatter);
-    }
 }
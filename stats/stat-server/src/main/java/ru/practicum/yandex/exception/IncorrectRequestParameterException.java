@@ -0,0 +1,7 @@
+package ru.practicum.yandex.exception;
+
+public class IncorrectRequestParameterException extends RuntimeException {
+    public IncorrectRequestParameterException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.yandex.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -26,6 +28,12 @@ public class StatServiceExceptionHandler {
         return e.getLocalizedMessage();
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIncorrectRequestParameterException(IncorrectRequestParameterException e) {
+        return e.getLocalizedMessage();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public String handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
@@ -38,6 +46,13 @@ public class StatServiceExceptionHandler {
         return e.getParsedString() + " : " + e.getLocalizedMessage();
     }
 
+    @ExceptionHandler
+    public ResponseEntity<String> handleIngestionOverloadedException(IngestionOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getLocalizedMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public String handleExceptions(RuntimeException e) {
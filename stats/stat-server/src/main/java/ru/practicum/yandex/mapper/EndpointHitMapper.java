@@ -1,14 +1,20 @@
 package ru.practicum.yandex.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.yandex.dto.EndpointHitDto;
 import ru.practicum.yandex.model.EndpointHit;
 
+import java.util.List;
+
 
 @Mapper(componentModel = "spring")
 public interface EndpointHitMapper {
 
     EndpointHitDto toDto(EndpointHit endpointHit);
 
+    @Mapping(target = "weight", ignore = true)
     EndpointHit toModel(EndpointHitDto endpointHitDto);
+
+    List<EndpointHit> toModelList(List<EndpointHitDto> endpointHitDtos);
 }
@@ -1,8 +1,14 @@
 package ru.practicum.yandex.mapper;
 
 import org.mapstruct.Mapper;
+import ru.practicum.yandex.dto.TrendingUriDto;
 import ru.practicum.yandex.dto.ViewStatsDto;
+import ru.practicum.yandex.dto.ViewStatsPointDto;
+import ru.practicum.yandex.dto.ViewStatsSeriesDto;
+import ru.practicum.yandex.model.TrendingUri;
 import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.model.ViewStatsPoint;
+import ru.practicum.yandex.model.ViewStatsSeries;
 
 import java.util.List;
 
@@ -12,4 +18,12 @@ public interface ViewStatsMapper {
     ViewStatsDto toDto(ViewStats viewStats);
 
     List<ViewStatsDto> toDtoList(List<ViewStats> viewStatsList);
+
+    ViewStatsPointDto toPointDto(ViewStatsPoint viewStatsPoint);
+
+    ViewStatsSeriesDto toSeriesDto(ViewStatsSeries viewStatsSeries);
+
+    List<ViewStatsSeriesDto> toSeriesDtoList(List<ViewStatsSeries> viewStatsSeriesList);
+
+    List<TrendingUriDto> toTrendingDtoList(List<TrendingUri> trendingUris);
 }
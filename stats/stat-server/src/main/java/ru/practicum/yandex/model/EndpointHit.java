@@ -12,6 +12,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -26,7 +27,8 @@ import java.time.LocalDateTime;
 public class EndpointHit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "endpointhits_id_seq")
+    @SequenceGenerator(name = "endpointhits_id_seq", sequenceName = "endpointhits_id_seq", allocationSize = 50)
     private Long id;
 
     private String app;
@@ -37,4 +39,10 @@ public class EndpointHit {
 
     @Column(name = "created")
     private LocalDateTime timestamp;
+
+    /**
+     * Количество хитов, которые представляет сохраненный хит: 1 / вероятность сохранения при выборочном приеме.
+     */
+    @Builder.Default
+    private Double weight = 1.0;
 }
@@ -0,0 +1,59 @@
+package ru.practicum.yandex.model;
+
+import ru.practicum.yandex.exception.IncorrectDateIntervalException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Размер интервала временного ряда статистики. Поле date_trunc подставляется в текст запроса из перечисления,
+ * а не из параметров запроса.
+ */
+public enum SeriesInterval {
+
+    MINUTE("minute", ChronoUnit.MINUTES),
+    HOUR("hour", ChronoUnit.HOURS),
+    DAY("day", ChronoUnit.DAYS),
+    WEEK("week", ChronoUnit.WEEKS),
+    MONTH("month", ChronoUnit.MONTHS);
+
+    private final String truncField;
+
+    private final ChronoUnit unit;
+
+    SeriesInterval(String truncField, ChronoUnit unit) {
+        this.truncField = truncField;
+        this.unit = unit;
+    }
+
+    public String getTruncField() {
+        return truncField;
+    }
+
+    /**
+     * Количество интервалов, которые затрагивает период, с учетом неполных интервалов на границах.
+     *
+     * @param start начало периода
+     * @param end   конец периода
+     * @return количество интервалов
+     */
+    public long bucketCount(LocalDateTime start, LocalDateTime end) {
+        return unit.between(start, end) + 1;
+    }
+
+    /**
+     * Получение интервала по названию без учета регистра.
+     *
+     * @param name название интервала
+     * @return интервал
+     */
+    public static SeriesInterval from(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IncorrectDateIntervalException("Неизвестный интервал временного ряда '" + name
+                    + "'. Допустимые значения: minute, hour, day, week, month.");
+        }
+    }
+}
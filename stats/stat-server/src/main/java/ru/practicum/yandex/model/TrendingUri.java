@@ -0,0 +1,21 @@
+package ru.practicum.yandex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrendingUri {
+
+    private String uri;
+
+    private Long recentHits;
+
+    private Long previousHits;
+
+    private Long acceleration;
+}
@@ -16,4 +16,21 @@ public class ViewStats {
     private String uri;
 
     private Long hits;
+
+    /**
+     * Количество хитов оценено по выборке: часть хитов была сохранена с весом больше 1.
+     */
+    private boolean estimated;
+
+    /**
+     * Статистика по сумме весов хитов.
+     *
+     * @param app          название приложения
+     * @param uri          URI
+     * @param weightedHits сумма весов хитов
+     * @param maxWeight    наибольший вес хита
+     */
+    public ViewStats(String app, String uri, Double weightedHits, Double maxWeight) {
+        this(app, uri, Math.round(weightedHits), maxWeight > 1);
+    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.yandex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewStatsPoint {
+
+    private LocalDateTime bucket;
+
+    private Long hits;
+}
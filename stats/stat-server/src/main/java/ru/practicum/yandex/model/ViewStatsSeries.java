@@ -0,0 +1,23 @@
+package ru.practicum.yandex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewStatsSeries {
+
+    private String app;
+
+    private String uri;
+
+    private List<ViewStatsPoint> points;
+
+    private boolean estimated;
+}
@@ -0,0 +1,23 @@
+package ru.practicum.yandex.repository;
+
+import ru.practicum.yandex.model.SeriesInterval;
+import ru.practicum.yandex.model.TrendingUri;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.model.ViewStatsSeries;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StatRepositoryCustom {
+
+    List<ViewStats> findStatsForUrisWithUniqueIps(Collection<String> uris);
+
+    List<ViewStats> findStatsWithUniqueIps(LocalDateTime start, LocalDateTime end, Collection<String> uris);
+
+    List<ViewStatsSeries> findStatsSeries(LocalDateTime start, LocalDateTime end, Collection<String> uris,
+                                          SeriesInterval interval, boolean unique);
+
+    List<TrendingUri> findUniqueHitsInAdjacentWindows(LocalDateTime previousStart, LocalDateTime recentStart,
+                                                      LocalDateTime end, String uriPrefix);
+}
@@ -0,0 +1,167 @@
+package ru.practicum.yandex.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import ru.practicum.yandex.model.SeriesInterval;
+import ru.practicum.yandex.model.TrendingUri;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.model.ViewStatsPoint;
+import ru.practicum.yandex.model.ViewStatsSeries;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Запросы статистики, которые не выражаются в JPQL. Хиты учитываются с весами: при выборочном приеме хит
+ * сохраняется с вероятностью p и весом 1/p. Хиты одного IP-адреса сохраняются или отбрасываются вместе, и IP-адрес
+ * попадает в выборку с вероятностью, равной наибольшей вероятности среди его хитов, то есть 1 / наименьший вес его
+ * сохраненных хитов. Поэтому несмещенная оценка количества уникальных IP-адресов - сумма наименьших весов хитов
+ * каждого IP-адреса; без выборки она совпадает с COUNT(DISTINCT ip).
+ */
+@RequiredArgsConstructor
+public class StatRepositoryCustomImpl implements StatRepositoryCustom {
+
+    private static final String UNIQUE_IP_STATS = "SELECT app, uri, SUM(ip_weight) AS hits, MAX(max_weight) AS max_weight " +
+            "FROM (SELECT app, uri, ip, MIN(weight) AS ip_weight, MAX(weight) AS max_weight FROM endpointhits " +
+            "WHERE %s GROUP BY app, uri, ip) AS ip_hits GROUP BY app, uri ORDER BY hits DESC";
+
+    private static final String STATS_SERIES = "SELECT app, uri, date_trunc('%s', created) AS bucket, SUM(weight) AS hits, " +
+            "MAX(weight) AS max_weight FROM endpointhits WHERE created BETWEEN ? AND ?%s " +
+            "GROUP BY app, uri, bucket ORDER BY app, uri, bucket";
+
+    private static final String UNIQUE_IP_STATS_SERIES = "SELECT app, uri, bucket, SUM(ip_weight) AS hits, " +
+            "MAX(max_weight) AS max_weight FROM (SELECT app, uri, ip, date_trunc('%s', created) AS bucket, " +
+            "MIN(weight) AS ip_weight, MAX(weight) AS max_weight FROM endpointhits WHERE created BETWEEN ? AND ?%s " +
+            "GROUP BY app, uri, ip, bucket) AS ip_hits GROUP BY app, uri, bucket ORDER BY app, uri, bucket";
+
+    private static final String UNIQUE_HITS_IN_ADJACENT_WINDOWS = "SELECT uri, SUM(recent_weight) AS recent_hits, " +
+            "SUM(previous_weight) AS previous_hits FROM (SELECT uri, ip, " +
+            "MIN(CASE WHEN created >= ? THEN weight END) AS recent_weight, " +
+            "MIN(CASE WHEN created < ? THEN weight END) AS previous_weight " +
+            "FROM endpointhits WHERE created >= ? AND created <= ? AND uri LIKE ? ESCAPE '\\' GROUP BY uri, ip) AS ip_hits " +
+            "GROUP BY uri";
+
+    private static final RowMapper<ViewStats> VIEW_STATS_ROW_MAPPER = (resultSet, rowNum) -> new ViewStats(
+            resultSet.getString("app"), resultSet.getString("uri"), resultSet.getDouble("hits"),
+            resultSet.getDouble("max_weight"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Статистика по уникальным IP-адресам для набора URI одним запросом. Набор URI передается одним параметром-массивом,
+     * поэтому текст запроса и его план не зависят от количества URI.
+     *
+     * @param uris URI для запроса
+     * @return статистика по уникальным IP-адресам для URI, по которым есть хиты
+     */
+    @Override
+    public List<ViewStats> findStatsForUrisWithUniqueIps(Collection<String> uris) {
+        return jdbcTemplate.query(connection -> {
+            Array uriArray = connection.createArrayOf("varchar", uris.toArray());
+            var statement = connection.prepareStatement(String.format(UNIQUE_IP_STATS, "uri = ANY(?)"));
+            statement.setArray(1, uriArray);
+            return statement;
+        }, VIEW_STATS_ROW_MAPPER);
+    }
+
+    /**
+     * Статистика по уникальным IP-адресам за период.
+     *
+     * @param start начало периода (не включается)
+     * @param end   конец периода (не включается)
+     * @param uris  URI для фильтрации или null для всех URI
+     * @return статистика по уникальным IP-адресам в порядке убывания количества хитов
+     */
+    @Override
+    public List<ViewStats> findStatsWithUniqueIps(LocalDateTime start, LocalDateTime end, Collection<String> uris) {
+        String sql = String.format(UNIQUE_IP_STATS, "created > ? AND created < ?" + (uris == null ? "" : " AND uri = ANY(?)"));
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql);
+            statement.setTimestamp(1, Timestamp.valueOf(start));
+            statement.setTimestamp(2, Timestamp.valueOf(end));
+            if (uris != null) {
+                Array uriArray = connection.createArrayOf("varchar", uris.toArray());
+                statement.setArray(3, uriArray);
+            }
+            return statement;
+        }, VIEW_STATS_ROW_MAPPER);
+    }
+
+    /**
+     * Временной ряд статистики одним запросом: хиты группируются по приложению, URI и началу интервала date_trunc,
+     * строки упорядочены так, что ряд каждого URI собирается за один проход по результату. Интервалы без хитов
+     * в ряд не попадают.
+     *
+     * @param start    начало периода
+     * @param end      конец периода
+     * @param uris     URI для фильтрации или null для всех URI
+     * @param interval размер интервала
+     * @param unique   учитывать только уникальные IP-адреса внутри интервала
+     * @return временные ряды статистики для URI, по которым есть хиты
+     */
+    @Override
+    public List<ViewStatsSeries> findStatsSeries(LocalDateTime start, LocalDateTime end, Collection<String> uris,
+                                                 SeriesInterval interval, boolean unique) {
+        String sql = String.format(unique ? UNIQUE_IP_STATS_SERIES : STATS_SERIES, interval.getTruncField(),
+                uris == null ? "" : " AND uri = ANY(?)");
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql);
+            statement.setTimestamp(1, Timestamp.valueOf(start));
+            statement.setTimestamp(2, Timestamp.valueOf(end));
+            if (uris != null) {
+                Array uriArray = connection.createArrayOf("varchar", uris.toArray());
+                statement.setArray(3, uriArray);
+            }
+            return statement;
+        }, resultSet -> {
+            List<ViewStatsSeries> series = new ArrayList<>();
+            ViewStatsSeries current = null;
+            while (resultSet.next()) {
+                String app = resultSet.getString("app");
+                String uri = resultSet.getString("uri");
+                if (current == null || !current.getApp().equals(app) || !current.getUri().equals(uri)) {
+                    current = new ViewStatsSeries(app, uri, new ArrayList<>(), false);
+                    series.add(current);
+                }
+                current.getPoints().add(new ViewStatsPoint(resultSet.getTimestamp("bucket").toLocalDateTime(),
+                        Math.round(resultSet.getDouble("hits"))));
+                if (resultSet.getDouble("max_weight") > 1) {
+                    current.setEstimated(true);
+                }
+            }
+            return series;
+        });
+    }
+
+    /**
+     * Количество уникальных IP-адресов по URI с префиксом в двух соседних окнах одним проходом по хитам:
+     * предыдущее окно [previousStart, recentStart), текущее окно [recentStart, end].
+     *
+     * @param previousStart начало предыдущего окна
+     * @param recentStart   начало текущего окна
+     * @param end           конец текущего окна
+     * @param uriPrefix     префикс URI
+     * @return количество уникальных IP-адресов в окнах без ускорения; URI без хитов в обоих окнах не возвращаются
+     */
+    @Override
+    public List<TrendingUri> findUniqueHitsInAdjacentWindows(LocalDateTime previousStart, LocalDateTime recentStart,
+                                                             LocalDateTime end, String uriPrefix) {
+        return jdbcTemplate.query(UNIQUE_HITS_IN_ADJACENT_WINDOWS,
+                (resultSet, rowNum) -> TrendingUri.builder()
+                        .uri(resultSet.getString("uri"))
+                        .recentHits(Math.round(resultSet.getDouble("recent_hits")))
+                        .previousHits(Math.round(resultSet.getDouble("previous_hits")))
+                        .build(),
+                Timestamp.valueOf(recentStart), Timestamp.valueOf(recentStart), Timestamp.valueOf(previousStart),
+                Timestamp.valueOf(end), escapeLike(uriPrefix) + "%");
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
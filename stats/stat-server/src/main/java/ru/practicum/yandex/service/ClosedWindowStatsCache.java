@@ -0,0 +1,266 @@
+package ru.practicum.yandex.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов запросов статистики за закрытые интервалы. Интервал считается закрытым, если он заканчивается
+ * раньше водяного знака "текущее время минус допустимое опоздание хитов": статистика за такой интервал больше
+ * не меняется, и ее не нужно пересчитывать по исходным хитам при каждом запросе.
+ * <p>
+ * Ключ кэша - начало и конец интервала, отсортированный набор URI и признак уникальности. Результаты хранятся
+ * компактно в массивах, размер кэша ограничен суммарным количеством строк, при превышении вытесняются давно
+ * не запрашивавшиеся интервалы. Хит, попавший в закрытый интервал с опозданием, удаляет из кэша все интервалы,
+ * которые его содержат; загрузка, начатая до такого хита, в кэш не сохраняется.
+ */
+@Component
+@Slf4j
+public class ClosedWindowStatsCache {
+
+    private final boolean enabled;
+
+    private final Duration lateness;
+
+    private final long maxRows;
+
+    private final LinkedHashMap<WindowKey, CachedStats> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private long cachedRows;
+
+    private long generation;
+
+    public ClosedWindowStatsCache(@Value("${stat-server.stats-cache.enabled:true}") boolean enabled,
+                                  @Value("${stat-server.stats-cache.lateness-ms:60000}") long latenessMs,
+                                  @Value("${stat-server.stats-cache.max-rows:200000}") long maxRows,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.lateness = Duration.ofMillis(latenessMs);
+        this.maxRows = maxRows;
+        this.hitCounter = Counter.builder("stat.stats.cache.requests")
+                .description("Запросы статистики за закрытые интервалы")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("stat.stats.cache.requests")
+                .description("Запросы статистики за закрытые интервалы")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("stat.stats.cache.rows", this, ClosedWindowStatsCache::getCachedRows)
+                .description("Количество строк статистики в кэше закрытых интервалов")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Получение статистики за интервал. Статистика закрытого интервала берется из кэша или загружается и сохраняется
+     * в кэш; статистика открытого интервала всегда загружается заново.
+     *
+     * @param start  начало интервала
+     * @param end    конец интервала
+     * @param uris   URI для фильтрации или null для всех URI
+     * @param unique учитывать только уникальные IP-адреса
+     * @param loader загрузка статистики из базы данных
+     * @return статистика за интервал
+     */
+    public List<ViewStats> get(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                               Supplier<List<ViewStats>> loader) {
+        if (!enabled || !end.isBefore(watermark())) {
+            return loader.get();
+        }
+        WindowKey key = new WindowKey(start, end, uris == null ? null : List.copyOf(new TreeSet<>(uris)), unique);
+        long loadGeneration;
+        synchronized (this) {
+            CachedStats cached = entries.get(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached.toViewStats();
+            }
+            loadGeneration = generation;
+        }
+        missCounter.increment();
+        List<ViewStats> stats = loader.get();
+        put(key, stats, loadGeneration);
+        return stats;
+    }
+
+    /**
+     * Удаление из кэша интервалов, в которые могли попасть опоздавшие хиты. Вызывается после сохранения хитов.
+     * Границы времени и набор URI опоздавших хитов вычисляются один раз до захвата блокировки, поэтому каждый
+     * интервал проверяется за время, не зависящее от количества хитов. Удаляются все интервалы, пересекающие
+     * промежуток от самого раннего до самого позднего опоздавшего хита и содержащие хотя бы один из их URI; лишнее
+     * удаление только приводит к повторной загрузке интервала.
+     *
+     * @param hits сохраненные хиты
+     */
+    public void invalidate(Collection<EndpointHit> hits) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime watermark = watermark();
+        LocalDateTime earliest = null;
+        LocalDateTime latest = null;
+        Set<String> lateUris = new HashSet<>();
+        for (EndpointHit hit : hits) {
+            LocalDateTime timestamp = hit.getTimestamp();
+            if (!timestamp.isBefore(watermark)) {
+                continue;
+            }
+            if (earliest == null || timestamp.isBefore(earliest)) {
+                earliest = timestamp;
+            }
+            if (latest == null || timestamp.isAfter(latest)) {
+                latest = timestamp;
+            }
+            lateUris.add(hit.getUri());
+        }
+        if (earliest == null) {
+            return;
+        }
+        int removed = 0;
+        synchronized (this) {
+            generation++;
+            Iterator<Map.Entry<WindowKey, CachedStats>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<WindowKey, CachedStats> entry = iterator.next();
+                if (entry.getKey().mayContain(earliest, latest, lateUris)) {
+                    cachedRows -= entry.getValue().size();
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("Получено опоздавших хитов с URI: '{}'. Удалено интервалов из кэша статистики: '{}'.",
+                    lateUris.size(), removed);
+        }
+    }
+
+    public synchronized long getCachedRows() {
+        return cachedRows;
+    }
+
+    private synchronized void put(WindowKey key, List<ViewStats> stats, long loadGeneration) {
+        if (loadGeneration != generation || stats.size() > maxRows) {
+            return;
+        }
+        CachedStats previous = entries.put(key, CachedStats.of(stats));
+        if (previous != null) {
+            cachedRows -= previous.size();
+        }
+        cachedRows += stats.size();
+        Iterator<CachedStats> eldest = entries.values().iterator();
+        while (cachedRows > maxRows && eldest.hasNext()) {
+            cachedRows -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    private LocalDateTime watermark() {
+        return LocalDateTime.now().minus(lateness);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class WindowKey {
+
+        private final LocalDateTime start;
+
+        private final LocalDateTime end;
+
+        private final List<String> uris;
+
+        private final boolean unique;
+
+        /**
+         * Пересекается ли интервал с промежутком [earliest, latest] и содержит ли хотя бы один из URI.
+         */
+        boolean mayContain(LocalDateTime earliest, LocalDateTime latest, Set<String> hitUris) {
+            if (latest.isBefore(start) || earliest.isAfter(end)) {
+                return false;
+            }
+            if (uris == null) {
+                return true;
+            }
+            for (String uri : uris) {
+                if (hitUris.contains(uri)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Статистика интервала в виде параллельных массивов; одинаковые названия приложений хранятся одной строкой.
+     */
+    private static final class CachedStats {
+
+        private final String[] apps;
+
+        private final String[] uris;
+
+        private final long[] hits;
+
+        private final boolean[] estimated;
+
+        private CachedStats(String[] apps, String[] uris, long[] hits, boolean[] estimated) {
+            this.apps = apps;
+            this.uris = uris;
+            this.hits = hits;
+            this.estimated = estimated;
+        }
+
+        static CachedStats of(List<ViewStats> stats) {
+            int size = stats.size();
+            String[] apps = new String[size];
+            String[] uris = new String[size];
+            long[] hits = new long[size];
+            boolean[] estimated = new boolean[size];
+            Map<String, String> appNames = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                ViewStats viewStats = stats.get(i);
+                apps[i] = appNames.computeIfAbsent(viewStats.getApp(), app -> app);
+                uris[i] = viewStats.getUri();
+                hits[i] = viewStats.getHits();
+                estimated[i] = viewStats.isEstimated();
+            }
+            return new CachedStats(apps, uris, hits, estimated);
+        }
+
+        int size() {
+            return hits.length;
+        }
+
+        List<ViewStats> toViewStats() {
+            List<ViewStats> stats = new ArrayList<>(hits.length);
+            for (int i = 0; i < hits.length; i++) {
+                stats.add(new ViewStats(apps[i], uris[i], hits[i], estimated[i]));
+            }
+            return stats;
+        }
+    }
+}
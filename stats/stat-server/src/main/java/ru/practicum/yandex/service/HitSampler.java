@@ -0,0 +1,106 @@
+package ru.practicum.yandex.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.model.EndpointHit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Выборочный прием хитов при перегрузке. Пока очередь {@link IngestionLimiter} пуста, сохраняются все хиты. Когда
+ * в очереди появляются запросы, хит сохраняется с вероятностью p и весом 1/p: каждая четверть заполненности очереди
+ * уменьшает p вдвое, но не ниже {@code min-probability}. Вероятности - степени двойки, поэтому веса точные.
+ * <p>
+ * Решение принимается по хешу IP-адреса: хит сохраняется, если хеш, приведенный к [0, 1), меньше p. Так все хиты
+ * одного IP-адреса при одинаковом p сохраняются или отбрасываются вместе, а при разных p IP-адрес попадает в выборку
+ * с вероятностью, равной наибольшему из них. На этом строится несмещенная оценка количества уникальных IP-адресов
+ * в {@link ru.practicum.yandex.repository.StatRepositoryCustomImpl}. Соль хеша должна оставаться неизменной,
+ * иначе решения до и после ее смены не будут согласованы.
+ */
+@Component
+public class HitSampler {
+
+    private final boolean enabled;
+
+    private final int levels;
+
+    private final double minProbability;
+
+    private final long salt;
+
+    private final IngestionLimiter ingestionLimiter;
+
+    private final Counter droppedCounter;
+
+    private volatile double lastProbability = 1.0;
+
+    public HitSampler(@Value("${stat-server.sampling.enabled:true}") boolean enabled,
+                      @Value("${stat-server.sampling.min-probability:0.0625}") double minProbability,
+                      @Value("${stat-server.sampling.salt:0}") long salt,
+                      IngestionLimiter ingestionLimiter,
+                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.levels = Math.max(0, (int) Math.floor(Math.log(1 / minProbability) / Math.log(2)));
+        this.minProbability = Math.pow(2, -levels);
+        this.salt = salt;
+        this.ingestionLimiter = ingestionLimiter;
+        this.droppedCounter = Counter.builder("stat.ingestion.sampled.out")
+                .description("Хиты, не попавшие в выборку при перегрузке приема")
+                .register(meterRegistry);
+        Gauge.builder("stat.ingestion.sampling.probability", this, sampler -> sampler.lastProbability)
+                .description("Вероятность сохранения хита при последнем приеме")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выборка хитов для сохранения. Хитам, попавшим в выборку, назначается вес 1/p.
+     *
+     * @param endpointHits принятые хиты
+     * @return хиты для сохранения
+     */
+    public List<EndpointHit> sample(List<EndpointHit> endpointHits) {
+        double probability = currentProbability();
+        lastProbability = probability;
+        if (probability >= 1.0) {
+            return endpointHits;
+        }
+        List<EndpointHit> sampledHits = new ArrayList<>(endpointHits.size());
+        for (EndpointHit endpointHit : endpointHits) {
+            if (unitHash(endpointHit.getIp()) < probability) {
+                endpointHit.setWeight(1 / probability);
+                sampledHits.add(endpointHit);
+            }
+        }
+        droppedCounter.increment(endpointHits.size() - sampledHits.size());
+        return sampledHits;
+    }
+
+    private double currentProbability() {
+        if (!enabled || levels == 0) {
+            return 1.0;
+        }
+        double pressure = ingestionLimiter.getQueuePressure();
+        if (pressure <= 0) {
+            return 1.0;
+        }
+        int level = (int) Math.ceil(pressure * levels);
+        return Math.max(minProbability, Math.pow(2, -level));
+    }
+
+    /**
+     * Хеш IP-адреса, равномерно распределенный на [0, 1).
+     */
+    private double unitHash(String ip) {
+        long hash = salt ^ ip.hashCode();
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+}
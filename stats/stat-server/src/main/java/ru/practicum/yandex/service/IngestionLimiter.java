@@ -0,0 +1,123 @@
+package ru.practicum.yandex.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.exception.IngestionOverloadedException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничение приема хитов. Одновременно сохраняется не больше {@code max-concurrency} запросов с хитами, поэтому
+ * прием хитов занимает не больше такого же количества соединений пула и оставшиеся соединения всегда доступны
+ * запросам статистики. Запросы сверх лимита ждут в ограниченной очереди не дольше {@code queue-timeout-ms};
+ * если очередь заполнена или время ожидания истекло, запрос отклоняется с ответом 429 и заголовком Retry-After.
+ */
+@Component
+@Slf4j
+public class IngestionLimiter {
+
+    private final int maxConcurrency;
+
+    private final int queueCapacity;
+
+    private final long queueTimeoutMs;
+
+    private final long retryAfterSeconds;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Counter queueFullCounter;
+
+    private final Counter timeoutCounter;
+
+    public IngestionLimiter(@Value("${stat-server.ingestion.max-concurrency:4}") int maxConcurrency,
+                            @Value("${stat-server.ingestion.queue-capacity:50}") int queueCapacity,
+                            @Value("${stat-server.ingestion.queue-timeout-ms:500}") long queueTimeoutMs,
+                            @Value("${stat-server.ingestion.retry-after-seconds:1}") long retryAfterSeconds,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                            MeterRegistry meterRegistry) {
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(maxConcurrency, true);
+        if (maxConcurrency >= poolSize) {
+            log.warn("Лимит одновременного приема хитов '{}' не меньше размера пула соединений '{}': " +
+                    "при всплеске хитов запросы статистики будут ждать соединения.", maxConcurrency, poolSize);
+        }
+        this.queueFullCounter = Counter.builder("stat.ingestion.rejected")
+                .description("Отклоненные запросы с хитами")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("stat.ingestion.rejected")
+                .description("Отклоненные запросы с хитами")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("stat.ingestion.active", this, IngestionLimiter::getActive)
+                .description("Запросы с хитами, которые сохраняются сейчас")
+                .register(meterRegistry);
+        Gauge.builder("stat.ingestion.waiting", waiting, AtomicInteger::get)
+                .description("Запросы с хитами, ожидающие в очереди")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Получение разрешения на прием хитов. После обработки запроса разрешение возвращается методом {@link #release()}.
+     *
+     * @throws IngestionOverloadedException если очередь заполнена или разрешение не получено за время ожидания
+     */
+    public void acquire() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > queueCapacity) {
+            waiting.decrementAndGet();
+            queueFullCounter.increment();
+            throw overloaded("Очередь приема хитов заполнена.");
+        }
+        try {
+            if (!permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeoutCounter.increment();
+                throw overloaded("Истекло время ожидания в очереди приема хитов.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw overloaded("Ожидание в очереди приема хитов прервано.");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Заполненность очереди приема хитов.
+     *
+     * @return доля занятых мест в очереди от 0 до 1
+     */
+    public double getQueuePressure() {
+        if (queueCapacity <= 0) {
+            return permits.availablePermits() > 0 ? 0 : 1;
+        }
+        return Math.min(1.0, (double) waiting.get() / queueCapacity);
+    }
+
+    public int getActive() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    private IngestionOverloadedException overloaded(String reason) {
+        return new IngestionOverloadedException(reason + " Повторите запрос через " + retryAfterSeconds + " с.",
+                retryAfterSeconds);
+    }
+}
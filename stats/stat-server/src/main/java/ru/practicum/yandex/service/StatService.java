@@ -1,15 +1,29 @@
 package ru.practicum.yandex.service;
 
 import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.SeriesInterval;
+import ru.practicum.yandex.model.TrendingUri;
 import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.model.ViewStatsSeries;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 public interface StatService {
     EndpointHit methodHit(EndpointHit endpointHitDto);
 
+    void methodHits(List<EndpointHit> endpointHits);
+
     List<ViewStats> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
 
     ViewStats viewStatsForSingleUriWithUniqueIps(String uri);
+
+    List<ViewStats> viewStatsForUrisWithUniqueIps(Set<String> uris);
+
+    List<ViewStatsSeries> viewStatsSeries(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                          SeriesInterval interval, Boolean unique);
+
+    List<TrendingUri> viewTrendingUris(Duration window, Integer size, String uriPrefix);
 }
@@ -1,37 +1,98 @@
 package ru.practicum.yandex.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.yandex.exception.IncorrectDateIntervalException;
+import ru.practicum.yandex.exception.IncorrectRequestParameterException;
 import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.SeriesInterval;
+import ru.practicum.yandex.model.TrendingUri;
 import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.model.ViewStatsSeries;
 import ru.practicum.yandex.repository.StatRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class StatServiceImpl implements StatService {
 
     private final StatRepository statRepository;
 
+    private final ClosedWindowStatsCache closedWindowStatsCache;
+
+    private final TrendingUrisCache trendingUrisCache;
+
+    private final HitSampler hitSampler;
+
+    private final long seriesMaxBuckets;
+
+    private final Duration trendingMaxWindow;
+
+    private final int trendingMaxSize;
+
+    public StatServiceImpl(StatRepository statRepository,
+                           ClosedWindowStatsCache closedWindowStatsCache,
+                           TrendingUrisCache trendingUrisCache,
+                           HitSampler hitSampler,
+                           @Value("${stat-server.series.max-buckets:10000}") long seriesMaxBuckets,
+                           @Value("${stat-server.trending.max-window:7d}") Duration trendingMaxWindow,
+                           @Value("${stat-server.trending.max-size:100}") int trendingMaxSize) {
+        this.statRepository = statRepository;
+        this.closedWindowStatsCache = closedWindowStatsCache;
+        this.trendingUrisCache = trendingUrisCache;
+        this.hitSampler = hitSampler;
+        this.seriesMaxBuckets = seriesMaxBuckets;
+        this.trendingMaxWindow = trendingMaxWindow;
+        this.trendingMaxSize = trendingMaxSize;
+    }
+
     /**
-     * Метод для регистрации хита конечной точки.
+     * Метод для регистрации хита конечной точки. При перегрузке приема хит может быть отброшен {@link HitSampler};
+     * тогда он не сохраняется и возвращается без идентификатора.
      *
      * @param endpointHit информация о хите
      * @return сохраненный хит
      */
     @Override
     public EndpointHit methodHit(EndpointHit endpointHit) {
+        if (hitSampler.sample(List.of(endpointHit)).isEmpty()) {
+            log.debug("Хит конечной точки '{}' не попал в выборку.", endpointHit.getUri());
+            return endpointHit;
+        }
         EndpointHit savedHit = statRepository.save(endpointHit);
+        invalidateClosedWindows(List.of(savedHit));
         log.info("Зарегистрирован хит конечной точки с идентификатором '{}'.", savedHit.getId());
         return savedHit;
     }
 
     /**
-     * Метод для получения статистики просмотров.
+     * Метод для пакетной регистрации хитов конечных точек. При перегрузке приема сохраняется только выборка хитов
+     * с весами, см. {@link HitSampler}.
+     *
+     * @param endpointHits информация о хитах
+     */
+    @Override
+    @Transactional
+    public void methodHits(List<EndpointHit> endpointHits) {
+        List<EndpointHit> sampledHits = hitSampler.sample(endpointHits);
+        statRepository.saveAll(sampledHits);
+        invalidateClosedWindows(sampledHits);
+        log.info("Зарегистрировано хитов конечных точек: '{}' из '{}'.", sampledHits.size(), endpointHits.size());
+    }
+
+    /**
+     * Метод для получения статистики просмотров. Статистика за интервалы, закончившиеся раньше допустимого опоздания
+     * хитов, берется из {@link ClosedWindowStatsCache}.
      *
      * @param start  начало периода
      * @param end    конец периода
@@ -41,11 +102,13 @@ public class StatServiceImpl implements StatService {
      */
     @Override
     public List<ViewStats> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
-        if (unique) {
-            return getStatsFromUniqueIps(start, end, uris);
-        } else {
-            return getAllStats(start, end, uris);
-        }
+        return closedWindowStatsCache.get(start, end, uris, unique, () -> {
+            if (unique) {
+                return getStatsFromUniqueIps(start, end, uris);
+            } else {
+                return getAllStats(start, end, uris);
+            }
+        });
     }
 
     /**
@@ -57,7 +120,100 @@ public class StatServiceImpl implements StatService {
     @Override
     public ViewStats viewStatsForSingleUriWithUniqueIps(String uri) {
         log.info("Запрос статистики для уникальных IP-адресов для URI '{}'.", uri);
-        return statRepository.findStatsForUriWithUniqueIps(uri);
+        List<ViewStats> stats = statRepository.findStatsForUrisWithUniqueIps(List.of(uri));
+        return stats.isEmpty() ? null : stats.get(0);
+    }
+
+    /**
+     * Метод для получения статистики по уникальным IP-адресам для набора URI одним запросом.
+     *
+     * @param uris URI для запроса
+     * @return статистика по уникальным IP-адресам для URI, по которым есть хиты
+     */
+    @Override
+    public List<ViewStats> viewStatsForUrisWithUniqueIps(Set<String> uris) {
+        log.info("Запрос статистики для уникальных IP-адресов для '{}' URI.", uris.size());
+        if (uris.isEmpty()) {
+            return List.of();
+        }
+        return statRepository.findStatsForUrisWithUniqueIps(uris);
+    }
+
+    /**
+     * Метод для получения временного ряда статистики: количество хитов каждого URI по интервалам одним запросом.
+     * В базе хранятся только исходные хиты, поэтому ряд строится группировкой по date_trunc. Количество интервалов
+     * в периоде ограничено, чтобы один запрос не возвращал неограниченный объем данных.
+     *
+     * @param start    начало периода
+     * @param end      конец периода
+     * @param uris     список URI для фильтрации
+     * @param interval размер интервала
+     * @param unique   учитывать только уникальные IP-адреса внутри интервала
+     * @return временные ряды статистики для URI, по которым есть хиты
+     */
+    @Override
+    public List<ViewStatsSeries> viewStatsSeries(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                                 SeriesInterval interval, Boolean unique) {
+        long buckets = interval.bucketCount(start, end);
+        if (buckets > seriesMaxBuckets) {
+            throw new IncorrectDateIntervalException("Слишком много интервалов во временном ряду: '" + buckets
+                    + "'. Максимум: '" + seriesMaxBuckets + "'.");
+        }
+        log.info("Запрос временного ряда статистики между '{}' и '{}' с интервалом '{}', интервалов: '{}'.",
+                start, end, interval, buckets);
+        if (uris != null && uris.isEmpty()) {
+            return List.of();
+        }
+        return statRepository.findStatsSeries(start, end, uris, interval, unique);
+    }
+
+    /**
+     * Метод для получения URI с префиксом, просмотры которых растут быстрее всего. Ускорение - разница между
+     * количеством уникальных IP-адресов в последнем окне и в предыдущем окне того же размера. В рейтинг попадают
+     * только URI с положительным ускорением; учитываются только URI вида префикс + идентификатор, без вложенных
+     * путей. Рейтинг кэшируется на короткое время в {@link TrendingUrisCache}, поэтому окна сдвигаются не при каждом
+     * запросе, а при каждом пересчете.
+     *
+     * @param window    размер окна
+     * @param size      количество URI в рейтинге
+     * @param uriPrefix префикс URI
+     * @return URI в порядке убывания ускорения
+     */
+    @Override
+    public List<TrendingUri> viewTrendingUris(Duration window, Integer size, String uriPrefix) {
+        if (window.compareTo(Duration.ofMinutes(1)) < 0 || window.compareTo(trendingMaxWindow) > 0) {
+            throw new IncorrectRequestParameterException("Размер окна должен быть от 1 минуты до '" + trendingMaxWindow
+                    + "'. Получено: '" + window + "'.");
+        }
+        if (size <= 0) {
+            throw new IncorrectRequestParameterException("Количество URI в рейтинге должно быть положительным.");
+        }
+        List<TrendingUri> ranking = trendingUrisCache.get(window, uriPrefix, () -> rankTrendingUris(window, uriPrefix));
+        return ranking.subList(0, Math.min(size, ranking.size()));
+    }
+
+    private List<TrendingUri> rankTrendingUris(Duration window, String uriPrefix) {
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime recentStart = end.minus(window);
+        LocalDateTime previousStart = recentStart.minus(window);
+        List<TrendingUri> ranking = statRepository.findUniqueHitsInAdjacentWindows(previousStart, recentStart, end, uriPrefix)
+                .stream()
+                .filter(trendingUri -> isDirectChild(trendingUri.getUri(), uriPrefix))
+                .peek(trendingUri -> trendingUri.setAcceleration(trendingUri.getRecentHits() - trendingUri.getPreviousHits()))
+                .filter(trendingUri -> trendingUri.getAcceleration() > 0)
+                .sorted(Comparator.comparing(TrendingUri::getAcceleration)
+                        .thenComparing(TrendingUri::getRecentHits)
+                        .reversed()
+                        .thenComparing(TrendingUri::getUri))
+                .limit(trendingMaxSize)
+                .collect(Collectors.toList());
+        log.info("Пересчитан рейтинг URI с префиксом '{}' по ускорению просмотров за окно '{}'. Размер рейтинга '{}'.",
+                uriPrefix, window, ranking.size());
+        return ranking;
+    }
+
+    private static boolean isDirectChild(String uri, String uriPrefix) {
+        return uri.length() > uriPrefix.length() && uri.indexOf('/', uriPrefix.length()) < 0;
     }
 
     /**
@@ -89,10 +245,28 @@ public class StatServiceImpl implements StatService {
     private List<ViewStats> getStatsFromUniqueIps(LocalDateTime start, LocalDateTime end, List<String> uris) {
         if (uris == null) {
             log.info("Запрос статистики с уникальными IP-адресами между '{}' и '{}' для всех URI.", start, end);
-            return statRepository.findStatsWithUniqueIps(start, end);
         } else {
             log.info("Запрос статистики с уникальными IP-адресами между '{}' и '{}' для URI '{}'.", start, end, uris);
-            return statRepository.findStatsFromUriListWithUniqueIps(start, end, uris);
+        }
+        return statRepository.findStatsWithUniqueIps(start, end, uris);
+    }
+
+    /**
+     * Удаление из кэша закрытых интервалов, в которые попали сохраненные хиты. Внутри транзакции удаление выполняется
+     * после ее фиксации, чтобы загрузка статистики между удалением и фиксацией не вернула в кэш старый результат.
+     *
+     * @param endpointHits сохраненные хиты
+     */
+    private void invalidateClosedWindows(List<EndpointHit> endpointHits) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    closedWindowStatsCache.invalidate(endpointHits);
+                }
+            });
+        } else {
+            closedWindowStatsCache.invalidate(endpointHits);
         }
     }
 }
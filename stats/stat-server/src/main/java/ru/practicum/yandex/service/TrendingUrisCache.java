@@ -0,0 +1,154 @@
+package ru.practicum.yandex.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.model.TrendingUri;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш рейтингов URI по ускорению уникальных просмотров. Рейтинг строится по всем хитам двух соседних окон, поэтому
+ * пересчитывается не чаще одного раза за время жизни записи: одновременные запросы одного рейтинга ждут одного
+ * пересчета, остальные получают уже посчитанный результат. Пересчет выполняется вне операций над картой записей,
+ * поэтому не блокирует запросы других рейтингов. Префикс URI приходит из параметра запроса, поэтому количество
+ * записей ограничено: при превышении лимита вытесняется самая старая запись.
+ */
+@Component
+public class TrendingUrisCache {
+
+    private static final int MAX_ENTRIES = 64;
+
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<RankingKey, CachedRanking> entries = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    public TrendingUrisCache(@Value("${stat-server.trending.cache-ttl-ms:30000}") long ttlMs,
+                             MeterRegistry meterRegistry) {
+        this.ttlNanos = Duration.ofMillis(ttlMs).toNanos();
+        this.hitCounter = Counter.builder("stat.trending.cache.requests")
+                .description("Запросы рейтинга URI по ускорению просмотров")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("stat.trending.cache.requests")
+                .description("Запросы рейтинга URI по ускорению просмотров")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Получение рейтинга из кэша или его пересчет, если записи нет или время ее жизни истекло. Если рейтинг уже
+     * пересчитывается в другом потоке, ожидает результата этого пересчета. Ошибка пересчета передается всем ожидающим,
+     * а запись удаляется, чтобы следующий запрос пересчитал рейтинг заново.
+     *
+     * @param window    размер окна
+     * @param uriPrefix префикс URI
+     * @param loader    расчет рейтинга
+     * @return рейтинг URI
+     */
+    public List<TrendingUri> get(Duration window, String uriPrefix, Supplier<List<TrendingUri>> loader) {
+        RankingKey key = new RankingKey(window, uriPrefix);
+        CachedRanking cached = entries.get(key);
+        if (cached != null && cached.isFresh(System.nanoTime(), ttlNanos)) {
+            hitCounter.increment();
+            return await(cached.ranking);
+        }
+        CachedRanking candidate = new CachedRanking(new CompletableFuture<>(), System.nanoTime());
+        CachedRanking current = entries.compute(key, (ignored, existing) ->
+                existing != null && existing.isFresh(System.nanoTime(), ttlNanos) ? existing : candidate);
+        if (current != candidate) {
+            hitCounter.increment();
+            return await(current.ranking);
+        }
+        missCounter.increment();
+        evictOldest(candidate);
+        try {
+            List<TrendingUri> ranking = List.copyOf(loader.get());
+            candidate.complete(ranking);
+            return ranking;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, candidate);
+            candidate.ranking.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Вытеснение самых старых записей, пока их количество превышает лимит. Новая запись не вытесняется; запросы,
+     * ожидающие вытесненный пересчет, все равно получат его результат.
+     */
+    private void evictOldest(CachedRanking added) {
+        while (entries.size() > MAX_ENTRIES) {
+            entries.entrySet().stream()
+                    .filter(entry -> entry.getValue() != added)
+                    .min(Comparator.comparingLong(entry -> entry.getValue().createdAt))
+                    .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private static List<TrendingUri> await(CompletableFuture<List<TrendingUri>> ranking) {
+        try {
+            return ranking.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class RankingKey {
+
+        private final Duration window;
+
+        private final String uriPrefix;
+    }
+
+    private static final class CachedRanking {
+
+        private final CompletableFuture<List<TrendingUri>> ranking;
+
+        private final long createdAt;
+
+        private volatile long computedAt;
+
+        CachedRanking(CompletableFuture<List<TrendingUri>> ranking, long createdAt) {
+            this.ranking = ranking;
+            this.createdAt = createdAt;
+        }
+
+        void complete(List<TrendingUri> value) {
+            computedAt = System.nanoTime();
+            ranking.complete(value);
+        }
+
+        /**
+         * Запись свежая, пока рейтинг пересчитывается или с момента окончания пересчета не истекло время жизни.
+         */
+        boolean isFresh(long now, long ttlNanos) {
+            if (!ranking.isDone()) {
+                return true;
+            }
+            return !ranking.isCompletedExceptionally() && now - computedAt < ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.yandex.util;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Декодирование даты и времени из параметров запроса сервиса статистики.
+ */
+public final class DateTimeDecoder {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private DateTimeDecoder() {
+    }
+
+    /**
+     * Декодирование даты и времени из строки. Форматтер потокобезопасен и создается один раз, а не при каждом запросе.
+     *
+     * @param encodedDateTime закодированная строка даты и времени
+     * @return декодированное значение LocalDateTime
+     */
+    public static LocalDateTime decode(String encodedDateTime) {
+        String decodedDateTime = URLDecoder.decode(encodedDateTime, StandardCharsets.UTF_8);
+        return LocalDateTime.parse(decodedDateTime, FORMATTER);
+    }
+}
@@ -1,9 +1,16 @@
 DROP TABLE IF EXISTS endpointhits;
 
+DROP SEQUENCE IF EXISTS endpointhits_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS endpointhits_id_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS endpointhits (
-                                            id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1) NOT NULL PRIMARY KEY,
+                                            id BIGINT DEFAULT nextval('endpointhits_id_seq') NOT NULL PRIMARY KEY,
                                             app VARCHAR(255) NOT NULL,
                                             uri VARCHAR(255) NOT NULL,
                                             ip VARCHAR(255) NOT NULL,
-                                            created TIMESTAMP NOT NULL
-);
\ No newline at end of file
+                                            created TIMESTAMP NOT NULL,
+                                            weight DOUBLE PRECISION DEFAULT 1 NOT NULL
+);
+CREATE INDEX IF NOT EXISTS endpointhits_uri_ip_idx ON endpointhits (uri, ip);
+CREATE INDEX IF NOT EXISTS endpointhits_created_idx ON endpointhits (created);
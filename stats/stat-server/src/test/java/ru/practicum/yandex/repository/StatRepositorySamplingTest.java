@@ -0,0 +1,164 @@
+package ru.practicum.yandex.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.service.HitSampler;
+import ru.practicum.yandex.service.IngestionLimiter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверка оценок статистики по взвешенным хитам. Без выборки сумма весов совпадает с COUNT(*), а сумма наименьших
+ * весов хитов каждого IP-адреса - с COUNT(DISTINCT ip). При выборке оценки отличаются от точных значений не больше
+ * чем на {@link #TOLERANCE}. Каждая проверка использует свои URI, поэтому проверки не зависят от данных друг друга.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StatRepositorySamplingTest {
+
+    private static final int IPS = 3000;
+
+    private static final double TOLERANCE = 0.1;
+
+    private static final LocalDateTime START = LocalDateTime.now().minusHours(2);
+
+    private static final LocalDateTime END = LocalDateTime.now().plusHours(1);
+
+    @Autowired
+    private StatRepository statRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final IngestionLimiter ingestionLimiter = mock(IngestionLimiter.class);
+
+    private final HitSampler hitSampler = new HitSampler(true, 0.0625, 0, ingestionLimiter, new SimpleMeterRegistry());
+
+    @Test
+    void weightedStatsMatchCountsWithoutSampling() {
+        List<String> uris = List.of("/unsampled/1", "/unsampled/2", "/unsampled/3");
+        when(ingestionLimiter.getQueuePressure()).thenReturn(0.0);
+        statRepository.saveAll(hitSampler.sample(hits(uris, 0)));
+
+        Map<String, ViewStats> stats = byUri(statRepository.findStatsFromUrlList(START, END, uris));
+        Map<String, ViewStats> uniqueStats = byUri(statRepository.findStatsWithUniqueIps(START, END, uris));
+
+        assertThat(stats.keySet()).containsExactlyInAnyOrderElementsOf(uris);
+        assertThat(uniqueStats.keySet()).containsExactlyInAnyOrderElementsOf(uris);
+        for (String uri : uris) {
+            assertThat(stats.get(uri).getHits()).isEqualTo(count("COUNT(*)", uri));
+            assertThat(uniqueStats.get(uri).getHits()).isEqualTo(count("COUNT(DISTINCT ip)", uri));
+            assertThat(stats.get(uri).isEstimated()).isFalse();
+            assertThat(uniqueStats.get(uri).isEstimated()).isFalse();
+        }
+    }
+
+    @Test
+    void weightedStatsStayCloseToCountsUnderSampling() {
+        List<String> uris = List.of("/sampled/1", "/sampled/2", "/sampled/3");
+        List<EndpointHit> hits = hits(uris, 0);
+        Map<String, Long> expectedHits = countHits(hits);
+        Map<String, Long> expectedIps = countIps(hits);
+        when(ingestionLimiter.getQueuePressure()).thenReturn(0.5);
+        statRepository.saveAll(hitSampler.sample(hits));
+
+        Map<String, ViewStats> stats = byUri(statRepository.findStatsFromUrlList(START, END, uris));
+        Map<String, ViewStats> uniqueStats = byUri(statRepository.findStatsWithUniqueIps(START, END, uris));
+
+        for (String uri : uris) {
+            assertThat((double) stats.get(uri).getHits())
+                    .isCloseTo(expectedHits.get(uri), within(expectedHits.get(uri) * TOLERANCE));
+            assertThat((double) uniqueStats.get(uri).getHits())
+                    .isCloseTo(expectedIps.get(uri), within(expectedIps.get(uri) * TOLERANCE));
+            assertThat(stats.get(uri).isEstimated()).isTrue();
+            assertThat(uniqueStats.get(uri).isEstimated()).isTrue();
+        }
+    }
+
+    /**
+     * Хиты одного IP-адреса приходят при разных вероятностях: первый хит каждого IP-адреса сохраняется без выборки,
+     * следующие - с вероятностью 1/8. IP-адрес попадает в выборку с вероятностью, равной наибольшей из них, поэтому
+     * количество уникальных IP-адресов остается точным.
+     */
+    @Test
+    void uniqueIpsUseSmallestWeightOfEachIp() {
+        List<String> uris = List.of("/mixed/1", "/mixed/2");
+        List<EndpointHit> firstHits = hits(uris, 0);
+        List<EndpointHit> laterHits = hits(uris, 1);
+        Map<String, Long> expectedIps = countIps(firstHits);
+        when(ingestionLimiter.getQueuePressure()).thenReturn(0.0);
+        statRepository.saveAll(hitSampler.sample(firstHits));
+        when(ingestionLimiter.getQueuePressure()).thenReturn(0.75);
+        statRepository.saveAll(hitSampler.sample(laterHits));
+
+        Map<String, ViewStats> uniqueStats = byUri(statRepository.findStatsWithUniqueIps(START, END, uris));
+
+        for (String uri : uris) {
+            assertThat(uniqueStats.get(uri).getHits()).isEqualTo(expectedIps.get(uri));
+            assertThat(uniqueStats.get(uri).isEstimated()).isTrue();
+        }
+    }
+
+    /**
+     * Хиты {@link #IPS} IP-адресов по каждому URI: каждый IP-адрес обращается к части URI, от одного до трех раз.
+     *
+     * @param uris  URI хитов
+     * @param round номер серии хитов, меняет количество хитов IP-адресов
+     */
+    private static List<EndpointHit> hits(List<String> uris, int round) {
+        LocalDateTime timestamp = LocalDateTime.now().minusHours(1);
+        List<EndpointHit> hits = new ArrayList<>();
+        for (int i = 0; i < IPS; i++) {
+            String ip = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+            for (int u = 0; u < uris.size(); u++) {
+                if ((i + u) % 4 == 0) {
+                    continue;
+                }
+                for (int j = 0; j <= (i + u + round) % 3; j++) {
+                    hits.add(EndpointHit.builder().app("ewm").uri(uris.get(u)).ip(ip).timestamp(timestamp).build());
+                }
+            }
+        }
+        return hits;
+    }
+
+    private long count(String aggregate, String uri) {
+        Long count = jdbcTemplate.queryForObject("SELECT " + aggregate + " FROM endpointhits WHERE uri = ?",
+                Long.class, uri);
+        return count == null ? 0 : count;
+    }
+
+    private static Map<String, Long> countHits(List<EndpointHit> hits) {
+        return hits.stream().collect(Collectors.groupingBy(EndpointHit::getUri, Collectors.counting()));
+    }
+
+    private static Map<String, Long> countIps(List<EndpointHit> hits) {
+        Map<String, Set<String>> ips = new HashMap<>();
+        hits.forEach(hit -> ips.computeIfAbsent(hit.getUri(), uri -> new HashSet<>()).add(hit.getIp()));
+        return ips.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> (long) entry.getValue().size()));
+    }
+
+    private static Map<String, ViewStats> byUri(List<ViewStats> stats) {
+        return stats.stream().collect(Collectors.toMap(ViewStats::getUri, Function.identity()));
+    }
+}
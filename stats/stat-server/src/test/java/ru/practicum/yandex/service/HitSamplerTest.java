@@ -0,0 +1,102 @@
+package ru.practicum.yandex.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.yandex.model.EndpointHit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверка выборочного приема хитов: хиты одного IP-адреса при одинаковой вероятности сохраняются или отбрасываются
+ * вместе, вес сохраненного хита равен 1/p в точности, выборки с меньшей вероятностью вложены в выборки с большей.
+ */
+class HitSamplerTest {
+
+    private static final int IPS = 4000;
+
+    private final IngestionLimiter ingestionLimiter = mock(IngestionLimiter.class);
+
+    private final HitSampler hitSampler = new HitSampler(true, 0.0625, 0, ingestionLimiter, new SimpleMeterRegistry());
+
+    @Test
+    void keepsAllHitsWithoutQueuePressure() {
+        when(ingestionLimiter.getQueuePressure()).thenReturn(0.0);
+        List<EndpointHit> hits = hits();
+
+        List<EndpointHit> sampled = hitSampler.sample(hits);
+
+        assertThat(sampled).hasSameSizeAs(hits);
+        assertThat(sampled).allSatisfy(hit -> assertThat(hit.getWeight()).isEqualTo(1.0));
+    }
+
+    @Test
+    void keepsOrDropsHitsOfOneIpTogether() {
+        for (double pressure : new double[]{0.25, 0.5, 0.75, 1.0}) {
+            when(ingestionLimiter.getQueuePressure()).thenReturn(pressure);
+            List<EndpointHit> hits = hits();
+            Map<String, Long> hitsPerIp = hits.stream()
+                    .collect(Collectors.groupingBy(EndpointHit::getIp, Collectors.counting()));
+
+            Map<String, Long> sampledPerIp = hitSampler.sample(hits).stream()
+                    .collect(Collectors.groupingBy(EndpointHit::getIp, Collectors.counting()));
+
+            sampledPerIp.forEach((ip, count) -> assertThat(count).as("хиты IP-адреса %s", ip)
+                    .isEqualTo(hitsPerIp.get(ip)));
+        }
+    }
+
+    @Test
+    void weightsAreExactlyInverseProbability() {
+        double[] pressures = {0.25, 0.5, 0.75, 1.0};
+        double[] probabilities = {0.5, 0.25, 0.125, 0.0625};
+        for (int i = 0; i < pressures.length; i++) {
+            when(ingestionLimiter.getQueuePressure()).thenReturn(pressures[i]);
+            double probability = probabilities[i];
+
+            List<EndpointHit> sampled = hitSampler.sample(hits());
+
+            assertThat(sampled).allSatisfy(hit -> assertThat(hit.getWeight()).isEqualTo(1 / probability));
+            long sampledIps = sampled.stream().map(EndpointHit::getIp).distinct().count();
+            assertThat((double) sampledIps / IPS).isCloseTo(probability, within(0.05));
+        }
+    }
+
+    @Test
+    void samplesWithLowerProbabilityAreNested() {
+        when(ingestionLimiter.getQueuePressure()).thenReturn(0.25);
+        Set<String> halfSample = ips(hitSampler.sample(hits()));
+        when(ingestionLimiter.getQueuePressure()).thenReturn(1.0);
+        Set<String> sixteenthSample = ips(hitSampler.sample(hits()));
+
+        assertThat(halfSample).containsAll(sixteenthSample);
+    }
+
+    /**
+     * Хиты {@link #IPS} IP-адресов, от одного до трех хитов на IP-адрес.
+     */
+    private static List<EndpointHit> hits() {
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<EndpointHit> hits = new ArrayList<>();
+        for (int i = 0; i < IPS; i++) {
+            String ip = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+            for (int j = 0; j <= i % 3; j++) {
+                hits.add(EndpointHit.builder().app("ewm").uri("/events/" + j).ip(ip).timestamp(timestamp).build());
+            }
+        }
+        return hits;
+    }
+
+    private static Set<String> ips(List<EndpointHit> hits) {
+        return hits.stream().map(EndpointHit::getIp).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.yandex.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.yandex.exception.IngestionOverloadedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Проверка ограничения приема хитов: не больше {@code max-concurrency} одновременных приемов, ожидание в очереди
+ * ограниченного размера, отказ при заполненной очереди и по истечении времени ожидания.
+ */
+class IngestionLimiterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        IngestionLimiter limiter = limiter(1, 2, 10_000);
+        limiter.acquire();
+        List<Future<?>> waiters = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            waiters.add(executor.submit(() -> {
+                limiter.acquire();
+                limiter.release();
+            }));
+        }
+        awaitPressure(limiter, 1.0);
+
+        assertThatThrownBy(limiter::acquire)
+                .isInstanceOf(IngestionOverloadedException.class)
+                .hasMessageContaining("Очередь приема хитов заполнена")
+                .extracting(e -> ((IngestionOverloadedException) e).getRetryAfterSeconds())
+                .isEqualTo(1L);
+
+        limiter.release();
+        for (Future<?> waiter : waiters) {
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(limiter.getQueuePressure()).isZero();
+        assertThat(limiter.getActive()).isZero();
+    }
+
+    @Test
+    void rejectsWhenQueueTimeoutExpires() {
+        IngestionLimiter limiter = limiter(1, 5, 100);
+        limiter.acquire();
+        long startedAt = System.nanoTime();
+
+        assertThatThrownBy(limiter::acquire)
+                .isInstanceOf(IngestionOverloadedException.class)
+                .hasMessageContaining("Истекло время ожидания");
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isGreaterThanOrEqualTo(100);
+        assertThat(limiter.getQueuePressure()).isZero();
+        assertThat(limiter.getActive()).isEqualTo(1);
+    }
+
+    @Test
+    void neverExceedsMaxConcurrency() throws Exception {
+        int maxConcurrency = 4;
+        int threads = 32;
+        IngestionLimiter limiter = limiter(maxConcurrency, threads, 10_000);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 50; j++) {
+                    limiter.acquire();
+                    try {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        Thread.yield();
+                        active.decrementAndGet();
+                    } finally {
+                        limiter.release();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(maxActive.get()).isBetween(1, maxConcurrency);
+        assertThat(limiter.getActive()).isZero();
+        assertThat(limiter.getQueuePressure()).isZero();
+    }
+
+    private static IngestionLimiter limiter(int maxConcurrency, int queueCapacity, long queueTimeoutMs) {
+        return new IngestionLimiter(maxConcurrency, queueCapacity, queueTimeoutMs, 1, 10, new SimpleMeterRegistry());
+    }
+
+    private static void awaitPressure(IngestionLimiter limiter, double pressure) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getQueuePressure() < pressure) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Очередь не заполнена: " + limiter.getQueuePressure());
+            }
+            Thread.sleep(5);
+        }
+    }
+}